@@ -0,0 +1,76 @@
+package goldexperiencerequiem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Builds reproducible task lists for the benchmarks.
+ */
+final class BenchmarkTasks {
+
+    private static final long SEED = 42;
+    private static final LocalDate START_DATE = LocalDate.of(2024, 1, 1);
+    private static final int DATE_SPAN_DAYS = 730;
+    private static final int MAX_EVENT_DAYS = 14;
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "meeting", "project", "report", "exam", "lecture", "groceries", "gym",
+        "dentist", "review", "draft", "submit", "call", "plan", "trip", "budget", "cases", "evidence",
+    };
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Creates an even mix of todos, deadlines and events with descriptions of
+     * three to five words. The same size always yields the same list.
+     *
+     * @param size Number of tasks to create.
+     * @return The tasks.
+     */
+    static ArrayList<Task> create(int size) {
+        Random random = new Random(SEED);
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String description = description(random, i);
+            LocalDate date = START_DATE.plusDays(random.nextInt(DATE_SPAN_DAYS));
+            Task task;
+            switch (i % 3) {
+                case 0:
+                    task = new Todo(description);
+                    break;
+                case 1:
+                    task = new Deadline(description, date);
+                    break;
+                default:
+                    task = new Event(description, date, date.plusDays(random.nextInt(MAX_EVENT_DAYS)));
+                    break;
+            }
+            if (random.nextBoolean()) {
+                task.markAsDone();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns a word that appears in the descriptions of generated tasks.
+     *
+     * @param index Any number; it is wrapped around the vocabulary.
+     * @return The word.
+     */
+    static String word(int index) {
+        return WORDS[Math.floorMod(index, WORDS.length)];
+    }
+
+    private static String description(Random random, int index) {
+        int wordCount = 3 + random.nextInt(3);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            description.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return description.append(index).toString();
+    }
+}
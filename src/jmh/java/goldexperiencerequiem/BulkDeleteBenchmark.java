@@ -0,0 +1,60 @@
+package goldexperiencerequiem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares a bulk delete of every other task with deleting the same tasks one
+ * at a time, as a script of single deletes would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkDeleteBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private ArrayList<Task> generated;
+    private int[] indices;
+    private TaskList tasks;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        generated = BenchmarkTasks.create(size);
+        indices = new int[size / 2];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i * 2;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        tasks = new TaskList(generated);
+    }
+
+    @Benchmark
+    public List<Task> deleteTasks() {
+        return tasks.deleteTasks(indices);
+    }
+
+    @Benchmark
+    public TaskList deleteTaskRepeatedly() {
+        // Deleting from the back keeps the remaining indices valid
+        for (int i = indices.length - 1; i >= 0; i--) {
+            tasks.deleteTask(indices[i]);
+        }
+        return tasks;
+    }
+}
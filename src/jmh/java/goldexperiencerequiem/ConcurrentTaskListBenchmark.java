@@ -0,0 +1,83 @@
+package goldexperiencerequiem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures reading a task list shared between threads. Run the read
+ * benchmarks with increasing thread counts, e.g. {@code -t 1}, {@code -t 4},
+ * to check that throughput scales with the number of cores; the group
+ * benchmarks read while another thread keeps adding tasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConcurrentTaskListBenchmark {
+
+    /** Number of tasks read from each snapshot, about one screen of list output. */
+    private static final int PAGE = 100;
+
+    @Param({"100000"})
+    public int size;
+
+    private TaskList tasks;
+    private String keyword;
+    private Task writtenTask;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ArrayList<Task> generated = BenchmarkTasks.create(size);
+        tasks = new TaskList(generated);
+        keyword = "evidence " + (size / 2);
+        writtenTask = new Todo("a task written while others read");
+    }
+
+    @Benchmark
+    public int readPage() {
+        return countDone(tasks.getAllTasks());
+    }
+
+    @Benchmark
+    public ArrayList<Task> find() {
+        return tasks.findTasks(keyword);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public int readPageWhileWriting() {
+        return countDone(tasks.getAllTasks());
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public int addWhileReading() {
+        tasks.addTask(writtenTask);
+        return tasks.size();
+    }
+
+    private static int countDone(List<Task> snapshot) {
+        int start = snapshot.size() / 2;
+        int done = 0;
+        for (int i = start; i < start + PAGE; i++) {
+            if (snapshot.get(i).isDone) {
+                done++;
+            }
+        }
+        return done;
+    }
+}
@@ -0,0 +1,48 @@
+package goldexperiencerequiem;
+
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.scene.layout.HBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures building the dialog box for one conversation message, against the
+ * original FXML-loaded box. The boxes are never put on a stage, so they can
+ * be built off the JavaFX Application Thread once the toolkit has started.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DialogBoxBenchmark {
+
+    private final ChatMessage message = ChatMessage.fromRequiem("Got it. I've added this task:", false);
+
+    @Setup(Level.Trial)
+    public void startToolkit() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // Already started by an earlier trial in this JVM
+        }
+    }
+
+    @Benchmark
+    public HBox create() {
+        DialogBox dialogBox = new DialogBox();
+        dialogBox.show(message, null);
+        return dialogBox;
+    }
+
+    @Benchmark
+    public HBox createLegacy() {
+        return new LegacyDialogBox(message.getText());
+    }
+}
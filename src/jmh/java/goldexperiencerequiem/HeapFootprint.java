@@ -0,0 +1,48 @@
+package goldexperiencerequiem;
+
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+
+/**
+ * Prints the heap retained per task by each way of holding a large board:
+ * plain task objects, a {@link TaskList} with its indexes, and a task list
+ * backed by a {@link TaskStore}. Run it with a fixed heap, e.g.
+ * {@code java -Xms2g -Xmx2g -cp ... goldexperiencerequiem.HeapFootprint 1000000}.
+ */
+public final class HeapFootprint {
+
+    private static final int DEFAULT_SIZE = 1_000_000;
+    private static final int GC_ROUNDS = 5;
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        report("task objects", size, () -> BenchmarkTasks.create(size));
+        report("TaskList", size, () -> new TaskList(BenchmarkTasks.create(size)));
+        report("TaskStore", size, () -> {
+            TaskList tasks = new TaskList(BenchmarkTasks.create(size));
+            tasks.enableTaskStore();
+            return tasks;
+        });
+    }
+
+    private static void report(String name, int size, Supplier<Object> build) throws InterruptedException {
+        long before = usedHeap();
+        Object holder = build.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(holder);
+        System.out.printf("%-12s %,14d bytes  %6.1f bytes/task%n", name, after - before,
+                (double) (after - before) / size);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,35 @@
+package goldexperiencerequiem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.shape.Circle;
+
+/**
+ * The original FXML-loaded dialog box, kept as a baseline for
+ * {@link DialogBoxBenchmark}. Builds the same layout as {@link DialogBox}.
+ */
+final class LegacyDialogBox extends HBox {
+    @FXML
+    private Label dialog;
+    @FXML
+    private ImageView displayPicture;
+
+    LegacyDialogBox(String text) {
+        try {
+            FXMLLoader fxmlLoader = new FXMLLoader(LegacyDialogBox.class.getResource("/view/LegacyDialogBox.fxml"));
+            fxmlLoader.setController(this);
+            fxmlLoader.setRoot(this);
+            fxmlLoader.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        displayPicture.setClip(new Circle(25, 25, 25));
+        dialog.setText(text);
+    }
+}
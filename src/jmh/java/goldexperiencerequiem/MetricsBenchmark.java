@@ -0,0 +1,38 @@
+package goldexperiencerequiem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures what the metrics add to every command: the clock reads around
+ * parsing and executing it, and recording the three timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsBenchmark {
+
+    private final Metrics metrics = new Metrics();
+    private final Command command = new ListCommand();
+
+    @Benchmark
+    public void recordCommand() {
+        long start = System.nanoTime();
+        long parsed = System.nanoTime();
+        long executed = System.nanoTime();
+        metrics.recordCommand(command, parsed - start, executed - parsed, 0, false);
+    }
+
+    @Benchmark
+    public void clockReadsOnly() {
+        System.nanoTime();
+        System.nanoTime();
+        System.nanoTime();
+    }
+}
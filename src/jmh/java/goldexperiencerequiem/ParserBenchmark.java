@@ -0,0 +1,48 @@
+package goldexperiencerequiem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Parser#parse} for every command type, against the original
+ * split-based {@link LegacyParser}. Run with {@code -prof gc} to compare
+ * allocation per call as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+
+    @Param({
+        "list",
+        "bye",
+        "help",
+        "mark 42",
+        "unmark 42",
+        "delete 42",
+        "todo read book about the case",
+        "deadline return book /by 2024-06-15",
+        "event project meeting /from 2024-06-15 /to 2024-06-17",
+        "find book /or meeting",
+        "due 2024-06-15",
+        "between 2024-06-01 2024-06-30",
+    })
+    public String input;
+
+    @Benchmark
+    public Command parse() throws RequiemException {
+        return Parser.parse(input);
+    }
+
+    @Benchmark
+    public Command parseLegacy() throws RequiemException {
+        return LegacyParser.parse(input);
+    }
+}
@@ -0,0 +1,129 @@
+package goldexperiencerequiem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Load-tests {@link RequiemServer}: each benchmark thread is a client on its
+ * own connection, sending a command and waiting for the response. Change the
+ * number of clients with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class ServerBenchmark {
+
+    private static final String DIVIDER = "____________________________________________________________";
+
+    private Path directory;
+    private Requiem requiem;
+    private RequiemServer server;
+    private final AtomicInteger clientCount = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        directory = Files.createTempDirectory("requiem-server-bench");
+        requiem = new Requiem(directory.resolve("requiem.txt"));
+        server = new RequiemServer(requiem, 0);
+        Thread acceptThread = new Thread(server::serve);
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        server.close();
+        requiem.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * One client connection, kept open for the whole trial.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private Socket socket;
+        private BufferedReader in;
+        private PrintWriter out;
+        private int clientNumber;
+        private int commandNumber;
+
+        @Setup(Level.Trial)
+        public void connect(ServerBenchmark benchmark) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), benchmark.server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            clientNumber = benchmark.clientCount.incrementAndGet();
+            readResponse();
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws IOException {
+            socket.close();
+        }
+
+        int send(String command) {
+            out.println(command);
+            return readResponse();
+        }
+
+        private int readResponse() {
+            try {
+                int lines = 0;
+                int dividers = 0;
+                while (dividers < 2) {
+                    String line = in.readLine();
+                    if (line == null) {
+                        throw new IOException("Server closed the connection");
+                    }
+                    if (line.equals(DIVIDER)) {
+                        dividers++;
+                    }
+                    lines++;
+                }
+                return lines;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public int addTodo(Client client) {
+        return client.send("todo lead " + client.clientNumber + "-" + client.commandNumber++);
+    }
+
+    @Benchmark
+    public int find(Client client) {
+        return client.send("find lead " + client.clientNumber);
+    }
+}
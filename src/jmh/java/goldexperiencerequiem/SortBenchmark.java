@@ -0,0 +1,84 @@
+package goldexperiencerequiem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares working out a sorted listing by sorting task objects with a
+ * comparator every time against the task list's remembered sorted views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SortBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    @Param({"DATE", "NAME"})
+    public SortOrder sortOrder;
+
+    private TaskList tasks;
+    private Comparator<Task> comparator;
+    private Task newTask;
+
+    @Setup
+    public void setUp() {
+        tasks = new TaskList(BenchmarkTasks.create(size));
+        comparator = sortOrder == SortOrder.DATE
+                ? Comparator.comparing(SortBenchmark::dateOf)
+                : Comparator.comparing((Task task) -> task.description, String.CASE_INSENSITIVE_ORDER);
+        newTask = new Deadline("a lead nobody has followed yet", LocalDate.of(2024, 6, 1));
+        tasks.getSortedView(sortOrder);
+    }
+
+    private static LocalDate dateOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).by;
+        } else if (task instanceof Event) {
+            return ((Event) task).from;
+        }
+        return LocalDate.MAX;
+    }
+
+    @Benchmark
+    public List<Task> comparatorSort() {
+        List<Task> sorted = new ArrayList<>(tasks.getAllTasks());
+        sorted.sort(comparator);
+        return sorted;
+    }
+
+    @Benchmark
+    public int[] keyedSort() {
+        List<Task> snapshot = tasks.getAllTasks();
+        return sortOrder.sort(snapshot, 0, snapshot.size());
+    }
+
+    @Benchmark
+    public SortedView unchangedSortedView() {
+        return tasks.getSortedView(sortOrder);
+    }
+
+    @Benchmark
+    public SortedView appendAndDeleteLastThenSortedViews() {
+        // Adding a task and deleting it again leaves the list over the same
+        // array, so the first view merges in the appended task and the second
+        // drops it again
+        tasks.addTask(newTask);
+        tasks.getSortedView(sortOrder);
+        tasks.deleteTask(tasks.size() - 1);
+        return tasks.getSortedView(sortOrder);
+    }
+}
@@ -0,0 +1,81 @@
+package goldexperiencerequiem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures full saves and loads of the data file in both formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+
+    private static final String TEXT_FORMAT = "text";
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    private Path directory;
+    private ArrayList<Task> tasks;
+    private Storage saveStorage;
+    private Storage loadStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("requiem-bench");
+        tasks = BenchmarkTasks.create(size);
+        saveStorage = createStorage(directory.resolve("save.txt"));
+        loadStorage = createStorage(directory.resolve("load.txt"));
+        loadStorage.save(tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        saveStorage.close();
+        loadStorage.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        saveStorage.save(tasks);
+    }
+
+    @Benchmark
+    public ArrayList<Task> load() {
+        return loadStorage.load();
+    }
+
+    private Storage createStorage(Path path) {
+        Storage storage = new Storage(path);
+        if (!TEXT_FORMAT.equals(format)) {
+            storage.enableBinaryFormat();
+        }
+        storage.setSyncPolicy(SyncPolicy.NEVER);
+        return storage;
+    }
+}
@@ -0,0 +1,62 @@
+package goldexperiencerequiem;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the task list queries that run on every find and add.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private Task existingTask;
+    private Task newTask;
+    private String singleKeyword;
+    private String anyKeyword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ArrayList<Task> generated = BenchmarkTasks.create(size);
+        existingTask = generated.get(size / 2);
+        tasks = new TaskList(generated);
+        newTask = new Todo("a task nobody has written yet");
+        singleKeyword = "evidence " + (size / 2);
+        anyKeyword = BenchmarkTasks.word(3) + " /or " + BenchmarkTasks.word(7);
+    }
+
+    @Benchmark
+    public ArrayList<Task> findTasksRare() {
+        return tasks.findTasks(singleKeyword);
+    }
+
+    @Benchmark
+    public ArrayList<Task> findTasksCommon() {
+        return tasks.findTasks(anyKeyword);
+    }
+
+    @Benchmark
+    public boolean hasDuplicateHit() {
+        return tasks.hasDuplicate(existingTask);
+    }
+
+    @Benchmark
+    public boolean hasDuplicateMiss() {
+        return tasks.hasDuplicate(newTask);
+    }
+}
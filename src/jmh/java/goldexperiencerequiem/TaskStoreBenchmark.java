@@ -0,0 +1,74 @@
+package goldexperiencerequiem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures what {@link TaskStore} pays for its smaller footprint: building a
+ * task object on every read. See {@link HeapFootprint} for the footprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TaskStoreBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private List<Task> objects;
+    private TaskStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ArrayList<Task> generated = BenchmarkTasks.create(size);
+        objects = generated;
+        store = new TaskStore(generated);
+    }
+
+    @Benchmark
+    public int countDoneObjects() {
+        return countDone(objects);
+    }
+
+    @Benchmark
+    public int countDoneStore() {
+        int done = 0;
+        for (int i = 0; i < store.size(); i++) {
+            if (store.isDone(i)) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    @Benchmark
+    public int countDoneStoreViews() {
+        return countDone(store);
+    }
+
+    @Benchmark
+    public TaskStore buildStore() {
+        return new TaskStore(objects);
+    }
+
+    private static int countDone(List<Task> tasks) {
+        int done = 0;
+        for (Task task : tasks) {
+            if (task.isDone) {
+                done++;
+            }
+        }
+        return done;
+    }
+}
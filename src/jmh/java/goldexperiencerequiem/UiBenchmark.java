@@ -0,0 +1,42 @@
+package goldexperiencerequiem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures rendering the whole task list into the GUI output buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UiBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private TaskList tasks;
+    private Ui ui;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tasks = new TaskList(BenchmarkTasks.create(size));
+        ui = new Ui();
+        ui.enableGuiMode();
+    }
+
+    @Benchmark
+    public String showTaskList() {
+        ui.resetBuffer();
+        ui.showTaskList(tasks);
+        return ui.getBufferedOutput();
+    }
+}
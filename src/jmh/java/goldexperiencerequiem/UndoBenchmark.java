@@ -0,0 +1,56 @@
+package goldexperiencerequiem;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures a change followed by its undo, to check that undoing does not
+ * get slower as the board grows. Storage writes are deferred, so only the
+ * task list and history are timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UndoBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private TaskList tasks;
+    private Storage storage;
+    private Task newTask;
+    private int middle;
+
+    @Setup
+    public void setUp() {
+        tasks = new TaskList(BenchmarkTasks.create(size));
+        storage = new Storage("undo-benchmark.txt");
+        storage.deferWrites();
+        newTask = new Todo("a lead nobody has followed yet");
+        middle = size / 2;
+    }
+
+    @Benchmark
+    public String addThenUndo() {
+        tasks.addTask(newTask);
+        tasks.getHistory().recordAdd(newTask);
+        return tasks.getHistory().undo(tasks, storage);
+    }
+
+    @Benchmark
+    public String markThenUndo() {
+        Task task = tasks.getTask(middle);
+        boolean wasDone = task.isDone;
+        task.markAsDone();
+        tasks.getHistory().recordStatusChange(new int[] {middle}, new boolean[] {wasDone}, true);
+        return tasks.getHistory().undo(tasks, storage);
+    }
+}
@@ -17,7 +17,7 @@ public class AddCommand extends Command {
 
     /**
      * Executes the add command.
-     * Adds the task to the task list, saves the updated list, and displays a
+     * Adds the task to the task list, persists the change, and displays a
      * confirmation message to the user.
      *
      * @param tasks   The TaskList to which the task will be added.
@@ -40,7 +40,8 @@ public class AddCommand extends Command {
 
         assert tasks.size() == oldSize + 1 : "AddCommand: task list size should increase by 1 after add";
 
-        storage.save(tasks.getAllTasks());
+        storage.recordAdd(tasks.getAllTasks(), task);
+        tasks.getHistory().recordAdd(task);
         ui.showTaskAdded(task, tasks.size());
     }
 
@@ -0,0 +1,42 @@
+package goldexperiencerequiem;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a command to list the deadlines and events within a date range.
+ */
+public class BetweenCommand extends Command {
+    private final LocalDate from;
+    private final LocalDate to;
+
+    /**
+     * Creates a new BetweenCommand for the given inclusive date range.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     */
+    public BetweenCommand(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Executes the between command by looking up the deadlines and events in
+     * the date index and displaying them.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler (not used in this command).
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        assert from != null && to != null : "BetweenCommand: dates should not be null";
+        assert !from.isAfter(to) : "BetweenCommand: range should not end before it starts";
+        ui.showScheduledTasks(tasks.findBetween(from, to));
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -0,0 +1,216 @@
+package goldexperiencerequiem;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary layout for the data file.
+ * <p>
+ * The file starts with a magic number, a format version and the journal
+ * sequence number the snapshot covers. Each task follows as a length-prefixed
+ * record holding a type byte, a done flag, its dates as epoch-day ints and a
+ * length-prefixed UTF-8 description. Nothing needs to be split or parsed as
+ * text, which makes loading large files much cheaper than the pipe-delimited
+ * format.
+ */
+public class BinaryTaskFormat {
+
+    /** "RQMB" in ASCII. */
+    private static final int MAGIC = 0x52514D42;
+    private static final int MAGIC_LENGTH = 4;
+    private static final short VERSION = 1;
+
+    private static final byte TODO_TYPE = 0;
+    private static final byte DEADLINE_TYPE = 1;
+    private static final byte EVENT_TYPE = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Magic number, version, sequence number and task count. */
+    private static final int HEADER_LENGTH = 18;
+
+    /** Type byte, done byte and description length. */
+    private static final int RECORD_FIXED_LENGTH = 6;
+    private static final int LENGTH_PREFIX_LENGTH = 4;
+    private static final int DATE_LENGTH = 4;
+    private static final String ERROR_CORRUPT_RECORD =
+            "Data file is corrupted: task %d claims %d bytes with %d left";
+
+    private BinaryTaskFormat() {
+    }
+
+    /**
+     * Checks whether the file starts with the binary format's magic number.
+     *
+     * @param path The file to check.
+     * @return True if the file is in the binary format, false otherwise.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] header = in.readNBytes(MAGIC_LENGTH);
+            return header.length == MAGIC_LENGTH && readInt(header, 0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the tasks to the given stream in the binary format. The stream is
+     * flushed but left open.
+     *
+     * @param stream The stream to write to.
+     * @param tasks  The tasks to write.
+     * @param seq    The journal sequence number the tasks reflect.
+     * @throws IOException If the stream cannot be written.
+     */
+    public static void write(OutputStream stream, List<Task> tasks, long seq) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seq);
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            writeTask(out, task);
+        }
+        out.flush();
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        byte[] description = task.description.getBytes(StandardCharsets.UTF_8);
+        int dateCount = task instanceof Event ? 2 : task instanceof Deadline ? 1 : 0;
+
+        out.writeInt(RECORD_FIXED_LENGTH + dateCount * DATE_LENGTH + description.length);
+        if (task instanceof Deadline) {
+            out.writeByte(DEADLINE_TYPE);
+            out.writeBoolean(task.isDone);
+            out.writeInt((int) ((Deadline) task).by.toEpochDay());
+        } else if (task instanceof Event) {
+            out.writeByte(EVENT_TYPE);
+            out.writeBoolean(task.isDone);
+            out.writeInt((int) ((Event) task).from.toEpochDay());
+            out.writeInt((int) ((Event) task).to.toEpochDay());
+        } else {
+            out.writeByte(TODO_TYPE);
+            out.writeBoolean(task.isDone);
+        }
+        out.writeInt(description.length);
+        out.write(description);
+    }
+
+    /**
+     * Reads every task from a file in the binary format into the given list.
+     * Records of an unknown type are skipped, and a file that ends between
+     * records ends the read with the tasks decoded so far. A record length
+     * that is negative or runs past the end of the file is rejected as
+     * corrupt before anything is allocated for it, leaving the tasks decoded
+     * so far in the list.
+     *
+     * @param path  The file to read from.
+     * @param tasks The list to add the decoded tasks to.
+     * @return The journal sequence number the file covers.
+     * @throws IOException      If the file cannot be read or has an unsupported version.
+     * @throws RequiemException If a record length is corrupted.
+     */
+    public static long read(Path path, ArrayList<Task> tasks) throws IOException, RequiemException {
+        long remaining = Files.size(path) - HEADER_LENGTH;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            in.readInt();
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported data file version " + version);
+            }
+            long seq = in.readLong();
+            int count = in.readInt();
+            // The count is not trusted either, so only reserve room for as
+            // many records as the file can hold
+            long maxCount = remaining / (LENGTH_PREFIX_LENGTH + RECORD_FIXED_LENGTH);
+            tasks.ensureCapacity(tasks.size() + (int) Math.max(0, Math.min(count, maxCount)));
+
+            byte[] record = new byte[BUFFER_SIZE];
+            try {
+                for (int i = 0; i < count; i++) {
+                    int length = in.readInt();
+                    remaining -= LENGTH_PREFIX_LENGTH;
+                    if (length < 0 || length > remaining) {
+                        throw new RequiemException(String.format(ERROR_CORRUPT_RECORD, i + 1, length, remaining));
+                    }
+                    if (length > record.length) {
+                        record = new byte[length];
+                    }
+                    in.readFully(record, 0, length);
+                    remaining -= length;
+                    Task task = decodeTask(record, length);
+                    if (task != null) {
+                        tasks.add(task);
+                    }
+                }
+            } catch (EOFException e) {
+                // Handle a truncated file by keeping what was read
+            }
+            return seq;
+        }
+    }
+
+    private static Task decodeTask(byte[] record, int length) {
+        try {
+            return decodeRecord(record, length);
+        } catch (Exception e) {
+            // Handle corruption by skipping the record
+            return null;
+        }
+    }
+
+    private static Task decodeRecord(byte[] record, int length) {
+        if (length < RECORD_FIXED_LENGTH) {
+            return null;
+        }
+        byte type = record[0];
+        boolean isDone = record[1] != 0;
+        int offset = 2;
+
+        Task task;
+        switch (type) {
+            case TODO_TYPE:
+                task = new Todo(readDescription(record, offset, length));
+                break;
+            case DEADLINE_TYPE:
+                LocalDate by = LocalDate.ofEpochDay(readInt(record, offset));
+                task = new Deadline(readDescription(record, offset + DATE_LENGTH, length), by);
+                break;
+            case EVENT_TYPE:
+                LocalDate from = LocalDate.ofEpochDay(readInt(record, offset));
+                LocalDate to = LocalDate.ofEpochDay(readInt(record, offset + DATE_LENGTH));
+                task = new Event(readDescription(record, offset + 2 * DATE_LENGTH, length), from, to);
+                break;
+            default:
+                return null;
+        }
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static String readDescription(byte[] record, int offset, int length) {
+        int descriptionLength = readInt(record, offset);
+        if (descriptionLength < 0 || descriptionLength > length - offset - 4) {
+            throw new IllegalArgumentException("Description runs past the end of the record");
+        }
+        return new String(record, offset + 4, descriptionLength, StandardCharsets.UTF_8);
+    }
+
+    private static int readInt(byte[] record, int offset) {
+        return (record[offset] & 0xFF) << 24 | (record[offset + 1] & 0xFF) << 16
+                | (record[offset + 2] & 0xFF) << 8 | (record[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,110 @@
+package goldexperiencerequiem;
+
+/**
+ * Represents one message in the GUI conversation.
+ */
+public class ChatMessage {
+    private static final String PENDING_TEXT = "...";
+
+    /**
+     * Who a message came from.
+     */
+    public enum Speaker {
+        USER,
+        REQUIEM
+    }
+
+    private final Speaker speaker;
+    private final String text;
+    private final boolean isError;
+    private final boolean isPending;
+
+    /**
+     * Creates a message.
+     *
+     * @param speaker Who the message came from.
+     * @param text    The text of the message.
+     * @param isError Whether the message reports an error.
+     */
+    public ChatMessage(Speaker speaker, String text, boolean isError) {
+        this(speaker, text, isError, false);
+    }
+
+    private ChatMessage(Speaker speaker, String text, boolean isError, boolean isPending) {
+        assert speaker != null : "ChatMessage: speaker should not be null";
+        assert text != null : "ChatMessage: text should not be null";
+        this.speaker = speaker;
+        this.text = text;
+        this.isError = isError;
+        this.isPending = isPending;
+    }
+
+    /**
+     * Creates a message typed by the user.
+     *
+     * @param text The user's input.
+     * @return The message.
+     */
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(Speaker.USER, text, false);
+    }
+
+    /**
+     * Creates a response from Requiem.
+     *
+     * @param text    The response.
+     * @param isError Whether the response reports an error.
+     * @return The message.
+     */
+    public static ChatMessage fromRequiem(String text, boolean isError) {
+        return new ChatMessage(Speaker.REQUIEM, text, isError);
+    }
+
+    /**
+     * Creates a placeholder for a response from Requiem that is still being
+     * worked out. Each call returns a distinct placeholder, so it can later be
+     * swapped for the actual response.
+     *
+     * @return The placeholder message.
+     */
+    public static ChatMessage pending() {
+        return new ChatMessage(Speaker.REQUIEM, PENDING_TEXT, false, true);
+    }
+
+    /**
+     * Returns who the message came from.
+     *
+     * @return The speaker.
+     */
+    public Speaker getSpeaker() {
+        return speaker;
+    }
+
+    /**
+     * Returns the text of the message.
+     *
+     * @return The text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns whether the message reports an error.
+     *
+     * @return True if the message is an error, false otherwise.
+     */
+    public boolean isError() {
+        return isError;
+    }
+
+    /**
+     * Returns whether the message is a placeholder for a response that has not
+     * arrived yet.
+     *
+     * @return True if the message is pending, false otherwise.
+     */
+    public boolean isPending() {
+        return isPending;
+    }
+}
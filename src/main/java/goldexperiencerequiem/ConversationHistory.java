@@ -0,0 +1,196 @@
+package goldexperiencerequiem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Holds the recent part of the GUI conversation, with a bounded scrollback.
+ * <p>
+ * Once more than {@code capacity} messages have piled up, the oldest ones are
+ * appended to an archive file and dropped from memory in one batch, so a long
+ * session keeps a flat memory footprint and the view showing the messages only
+ * ever deals with a bounded list. The batch is written on a background thread,
+ * so the JavaFX Application Thread never waits on the disk.
+ */
+public class ConversationHistory {
+
+    private static final int DEFAULT_CAPACITY = 500;
+    private static final String RECORD_DELIMITER = " | ";
+    private static final String USER_INDICATOR = "U";
+    private static final String REQUIEM_INDICATOR = "R";
+    private static final String ERROR_INDICATOR = "E";
+    private static final String ERROR_ARCHIVE_FAILED = " Error archiving conversation: ";
+    private static final String ARCHIVER_THREAD_NAME = "requiem-archiver";
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    private final ObservableList<ChatMessage> readOnlyMessages = FXCollections.unmodifiableObservableList(messages);
+    private final Path archivePath;
+    private final int capacity;
+    private long archivedCount = 0;
+
+    /**
+     * Appends archived batches to the file one at a time, in the order they
+     * were dropped from memory.
+     */
+    private final ExecutorService archiver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, ARCHIVER_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates an empty history that keeps the default number of messages.
+     *
+     * @param archivePath File that older messages are appended to.
+     */
+    public ConversationHistory(Path archivePath) {
+        this(archivePath, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty history.
+     *
+     * @param archivePath File that older messages are appended to.
+     * @param capacity    Number of messages to keep in memory.
+     */
+    public ConversationHistory(Path archivePath, int capacity) {
+        assert capacity > 0 : "ConversationHistory: capacity should be positive";
+        this.archivePath = archivePath;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the messages kept in memory, oldest first. The list updates as
+     * messages are added and archived.
+     *
+     * @return A read-only view of the messages.
+     */
+    public ObservableList<ChatMessage> getMessages() {
+        return readOnlyMessages;
+    }
+
+    /**
+     * Returns how many messages have been moved to the archive so far.
+     *
+     * @return The number of archived messages.
+     */
+    public long getArchivedCount() {
+        return archivedCount;
+    }
+
+    /**
+     * Adds messages to the end of the conversation, archiving the oldest ones
+     * if the history is over capacity.
+     *
+     * @param newMessages The messages to add.
+     */
+    public void add(ChatMessage... newMessages) {
+        messages.addAll(newMessages);
+        if (messages.size() > capacity) {
+            // Archive a quarter of the history at a time, so the list is not
+            // shifted down on every single message
+            int count = Math.min(messages.size(), messages.size() - capacity + capacity / 4);
+            archive(messages.subList(0, count));
+        }
+    }
+
+    /**
+     * Swaps a message for another in the same place, such as a pending reply
+     * for the actual response. If the message has already been archived, the
+     * replacement is added to the end instead.
+     *
+     * @param message     The message to replace, matched by identity.
+     * @param replacement The message to put in its place.
+     */
+    public void replace(ChatMessage message, ChatMessage replacement) {
+        int index = messages.lastIndexOf(message);
+        if (index == -1) {
+            add(replacement);
+        } else {
+            messages.set(index, replacement);
+        }
+    }
+
+    /**
+     * Removes a message that is still held in memory.
+     *
+     * @param message The message to remove, matched by identity.
+     */
+    public void remove(ChatMessage message) {
+        int index = messages.lastIndexOf(message);
+        if (index != -1) {
+            messages.remove(index);
+        }
+    }
+
+    /**
+     * Waits for the archive writes already handed to the background thread
+     * to finish, then stops it. Messages added afterwards are dropped from
+     * memory without being archived.
+     */
+    public void close() {
+        archiver.shutdown();
+        try {
+            archiver.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void archive(List<ChatMessage> oldest) {
+        // Formatted here, so the background write never touches the list
+        List<String> lines = new ArrayList<>(oldest.size());
+        for (ChatMessage message : oldest) {
+            lines.add(toArchiveFormat(message));
+        }
+        if (!archiver.isShutdown()) {
+            archiver.execute(() -> write(lines));
+        }
+        // Dropped even if the write fails, so memory stays bounded
+        archivedCount += oldest.size();
+        oldest.clear();
+    }
+
+    private void write(List<String> lines) {
+        try {
+            Path parent = archivePath.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(archivePath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println(ERROR_ARCHIVE_FAILED + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns one line for the archive: who spoke, then the text with
+     * backslashes and line breaks escaped.
+     */
+    private static String toArchiveFormat(ChatMessage message) {
+        String indicator = message.getSpeaker() == ChatMessage.Speaker.USER
+                ? USER_INDICATOR
+                : message.isError() ? ERROR_INDICATOR : REQUIEM_INDICATOR;
+        String text = message.getText().replace("\\", "\\\\").replace("\r", "\\r").replace("\n", "\\n");
+        return indicator + RECORD_DELIMITER + text;
+    }
+}
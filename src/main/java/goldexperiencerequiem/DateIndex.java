@@ -0,0 +1,250 @@
+package goldexperiencerequiem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Ordered index over the dates of deadlines and events.
+ * <p>
+ * Deadlines are kept in a tree keyed by their due date. Events are kept in an
+ * interval tree keyed by their start date, where each node also remembers the
+ * latest end date in its subtree so whole branches that end too early can be
+ * skipped. Both answer range queries in logarithmic time plus the size of the
+ * result, ordered by date and then by position in the task list.
+ * <p>
+ * Tasks are only known by their ordinals, so the index holds no task
+ * references and the task list maps the results back to its tasks.
+ */
+public class DateIndex {
+
+    /** Due date to the ordinals of the deadlines due on it. */
+    private final TreeMap<LocalDate, OrdinalList> deadlines = new TreeMap<>();
+    private final Random random = new Random();
+    private EventNode eventRoot;
+
+    /**
+     * Node of the event interval tree, a treap ordered by start date and list
+     * ordinal.
+     */
+    private static class EventNode {
+        private final long from;
+        private final long to;
+        private final long ordinal;
+        private final int priority;
+        private long maxTo;
+        private EventNode left;
+        private EventNode right;
+
+        EventNode(long from, long to, long ordinal, int priority) {
+            this.from = from;
+            this.to = to;
+            this.ordinal = ordinal;
+            this.priority = priority;
+            this.maxTo = to;
+        }
+
+        boolean isBefore(long otherFrom, long otherOrdinal) {
+            return from < otherFrom || (from == otherFrom && ordinal < otherOrdinal);
+        }
+
+        void update() {
+            maxTo = to;
+            if (left != null) {
+                maxTo = Math.max(maxTo, left.maxTo);
+            }
+            if (right != null) {
+                maxTo = Math.max(maxTo, right.maxTo);
+            }
+        }
+    }
+
+    /**
+     * Registers a task if it is a deadline or an event. Other tasks are ignored.
+     *
+     * @param task    The task to index.
+     * @param ordinal The task's position-ordered ordinal.
+     */
+    public void add(Task task, long ordinal) {
+        if (task instanceof Deadline) {
+            deadlines.computeIfAbsent(((Deadline) task).by, key -> new OrdinalList()).add(ordinal);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            EventNode node = new EventNode(event.from.toEpochDay(), event.to.toEpochDay(), ordinal,
+                    random.nextInt());
+            eventRoot = insert(eventRoot, node);
+        }
+    }
+
+    /**
+     * Removes a task that was registered with {@link #add}.
+     *
+     * @param task    The task to remove.
+     * @param ordinal The ordinal the task was indexed under.
+     */
+    public void remove(Task task, long ordinal) {
+        if (task instanceof Deadline) {
+            LocalDate by = ((Deadline) task).by;
+            OrdinalList sameDay = deadlines.get(by);
+            if (sameDay != null) {
+                sameDay.remove(ordinal);
+                if (sameDay.isEmpty()) {
+                    deadlines.remove(by);
+                }
+            }
+        } else if (task instanceof Event) {
+            eventRoot = delete(eventRoot, ((Event) task).from.toEpochDay(), ordinal);
+        }
+    }
+
+    /**
+     * Returns the deadlines due on or before the given date.
+     *
+     * @param date The last due date to include.
+     * @return The ordinals of the matching deadlines, ordered by due date.
+     */
+    public long[] findDueBy(LocalDate date) {
+        Map<LocalDate, OrdinalList> dueBy = deadlines.headMap(date, true);
+        int total = 0;
+        for (OrdinalList sameDay : dueBy.values()) {
+            total += sameDay.size();
+        }
+        long[] result = new long[total];
+        int count = 0;
+        for (OrdinalList sameDay : dueBy.values()) {
+            sameDay.copyTo(result, count);
+            count += sameDay.size();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the deadlines due within, and the events overlapping, the given
+     * range. Both ends of the range are inclusive.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The ordinals of the matching tasks, ordered by due or start
+     *         date.
+     */
+    public long[] findBetween(LocalDate from, LocalDate to) {
+        Map<LocalDate, OrdinalList> dueInRange = deadlines.subMap(from, true, to, true);
+        ArrayList<EventNode> overlapping = new ArrayList<>();
+        collectOverlapping(eventRoot, from.toEpochDay(), to.toEpochDay(), overlapping);
+
+        // Both sequences are already sorted, so a merge keeps the result in date order
+        int total = overlapping.size();
+        for (OrdinalList sameDay : dueInRange.values()) {
+            total += sameDay.size();
+        }
+        long[] result = new long[total];
+        int count = 0;
+        int eventIndex = 0;
+        for (Map.Entry<LocalDate, OrdinalList> entry : dueInRange.entrySet()) {
+            long day = entry.getKey().toEpochDay();
+            OrdinalList sameDay = entry.getValue();
+            for (int i = 0; i < sameDay.size(); i++) {
+                long ordinal = sameDay.get(i);
+                while (eventIndex < overlapping.size() && overlapping.get(eventIndex).isBefore(day, ordinal)) {
+                    result[count++] = overlapping.get(eventIndex++).ordinal;
+                }
+                result[count++] = ordinal;
+            }
+        }
+        while (eventIndex < overlapping.size()) {
+            result[count++] = overlapping.get(eventIndex++).ordinal;
+        }
+        return result;
+    }
+
+    /**
+     * Appends, in order, the events under the node whose interval overlaps
+     * [from, to]. Subtrees that end before the range, and right subtrees that
+     * start after it, are skipped.
+     */
+    private void collectOverlapping(EventNode node, long from, long to, ArrayList<EventNode> result) {
+        if (node == null || node.maxTo < from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.from > to) {
+            return;
+        }
+        if (node.to >= from) {
+            result.add(node);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private EventNode insert(EventNode root, EventNode node) {
+        if (root == null) {
+            return node;
+        }
+        if (node.isBefore(root.from, root.ordinal)) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    private EventNode delete(EventNode root, long from, long ordinal) {
+        if (root == null) {
+            return null;
+        }
+        if (root.from == from && root.ordinal == ordinal) {
+            return merge(root.left, root.right);
+        }
+        if (root.isBefore(from, ordinal)) {
+            root.right = delete(root.right, from, ordinal);
+        } else {
+            root.left = delete(root.left, from, ordinal);
+        }
+        root.update();
+        return root;
+    }
+
+    private EventNode merge(EventNode left, EventNode right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private EventNode rotateRight(EventNode node) {
+        EventNode pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private EventNode rotateLeft(EventNode node) {
+        EventNode pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+}
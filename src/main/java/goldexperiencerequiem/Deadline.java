@@ -12,7 +12,7 @@ public class Deadline extends Task {
     private static final String BY_PREFIX = " (by: ";
     private static final String BY_SUFFIX = ")";
     private static final String FILE_DELIMITER = " | ";
-    private static final String DATE_OUTPUT_FORMAT = "MMM d yyyy";
+    private static final DateTimeFormatter DATE_OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("MMM d yyyy");
 
     protected LocalDate by;
 
@@ -29,26 +29,28 @@ public class Deadline extends Task {
     }
 
     /**
-     * Returns the string representation of the deadline task.
+     * Builds the string representation of the deadline task.
      *
+     * @param isMarkedDone The done status to render.
      * @return The deadline task icon, status icon, description, and by date.
      */
     @Override
-    public String toString() {
+    protected String renderString(boolean isMarkedDone) {
         assert by != null : "Deadline: by date should not be null when formatting";
-        return "[" + DEADLINE_TYPE_ICON + "]" + super.toString() + BY_PREFIX
-                + by.format(DateTimeFormatter.ofPattern(DATE_OUTPUT_FORMAT)) + BY_SUFFIX;
+        return "[" + DEADLINE_TYPE_ICON + "]" + super.renderString(isMarkedDone) + BY_PREFIX
+                + by.format(DATE_OUTPUT_FORMATTER) + BY_SUFFIX;
     }
 
     /**
-     * Returns the file-friendly string representation of the deadline task.
+     * Builds the file-friendly string representation of the deadline task.
      *
+     * @param isMarkedDone The done status to render.
      * @return File format string.
      */
     @Override
-    public String toFileFormat() {
+    protected String renderFileFormat(boolean isMarkedDone) {
         assert by != null : "Deadline: by date should not be null when serializing";
-        return DEADLINE_TYPE_ICON + FILE_DELIMITER + super.toFileFormat() + FILE_DELIMITER + by;
+        return DEADLINE_TYPE_ICON + FILE_DELIMITER + super.renderFileFormat(isMarkedDone) + FILE_DELIMITER + by;
     }
 
     @Override
@@ -1,30 +1,49 @@
 package goldexperiencerequiem;
 
+import java.util.List;
+
 /**
  * Represents a command to delete a task from the task list.
  */
 public class DeleteCommand extends Command {
     private final int index;
+    private final TaskSelection selection;
 
     public DeleteCommand(int index) {
         this.index = index;
+        this.selection = null;
+    }
+
+    /**
+     * Creates a new DeleteCommand that deletes every selected task at once.
+     *
+     * @param selection The tasks to be deleted.
+     */
+    public DeleteCommand(TaskSelection selection) {
+        this.index = -1;
+        this.selection = selection;
     }
 
     /**
      * Executes the delete command.
-     * Removes the task from the task list, saves the updated list, and displays a
+     * Removes the task from the task list, persists the change, and displays a
      * confirmation message to the user.
      *
      * @param tasks   The TaskList from which the task will be deleted.
      * @param ui      The Ui object to interact with the user.
      * @param storage The Storage object to save the updated task list.
-     * @throws RequiemException If the task index is out of bounds.
+     * @throws RequiemException If the task index is out of bounds, or a
+     *                          selection does not fit the list.
      */
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
         assert tasks != null : "DeleteCommand: tasks should not be null";
         assert ui != null : "DeleteCommand: ui should not be null";
         assert storage != null : "DeleteCommand: storage should not be null";
+        if (selection != null) {
+            deleteAll(tasks, ui, storage);
+            return;
+        }
         assert index >= 0 : "DeleteCommand: index should be non-negative (parser should enforce this)";
 
         if (index < 0 || index >= tasks.size()) {
@@ -37,10 +56,30 @@ public class DeleteCommand extends Command {
         assert removedTask != null : "DeleteCommand: deleteTask should return a task";
         assert tasks.size() == oldSize - 1 : "DeleteCommand: task list size should decrease by 1 after delete";
 
-        storage.save(tasks.getAllTasks());
+        storage.recordDelete(tasks.getAllTasks(), index);
+        tasks.getHistory().recordDelete(new int[] {index}, List.of(removedTask));
         ui.showTaskDeleted(removedTask, tasks.size());
     }
 
+    /**
+     * Deletes every selected task in one pass over the list and records them
+     * all in a single write.
+     */
+    private void deleteAll(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
+        int[] indices = selection.resolve(tasks);
+        List<Task> removedTasks = tasks.deleteTasks(indices);
+
+        assert removedTasks.size() == indices.length : "DeleteCommand: every selected task should be removed";
+
+        storage.recordDeletes(tasks.getAllTasks(), indices);
+        tasks.getHistory().recordDelete(indices, removedTasks);
+        if (indices.length == 1) {
+            ui.showTaskDeleted(removedTasks.get(0), tasks.size());
+        } else {
+            ui.showTasksDeleted(indices.length, tasks.size());
+        }
+    }
+
     @Override
     public boolean isExit() {
         return false;
@@ -0,0 +1,144 @@
+package goldexperiencerequiem;
+
+import java.util.HashMap;
+
+/**
+ * Shares one string between the tasks of a {@link TaskList} that have the
+ * same description.
+ * <p>
+ * Boards full of recurring chores hold the same few descriptions over and
+ * over. Each task that joins the list swaps its description for the copy the
+ * pool already holds, so every copy after the first can be collected. The JVM
+ * already stores descriptions without non-Latin-1 characters one byte per
+ * character, so the pool only removes the repeats.
+ * <p>
+ * The pool counts how many tasks in the list use each description and forgets
+ * a description once no task does, so it never holds more than the list
+ * itself and its saving is always that of the tasks in the list now. It is
+ * not thread-safe: the task list only changes it under its write lock. The
+ * counts can be read from any thread.
+ */
+public class DescriptionPool {
+
+    /** Object header, hash, coder and array reference of a string. */
+    private static final int STRING_OBJECT_BYTES = 24;
+
+    /** Object header and length of the string's byte array. */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int OBJECT_ALIGNMENT = 8;
+    private static final int LATIN1_LIMIT = 0xFF;
+
+    private static final String SUMMARY = " Descriptions: %,d of %,d shared, saving about %,d bytes.";
+
+    private final HashMap<String, Entry> descriptions = new HashMap<>();
+
+    /** Written only by the task list's writer, so plain volatile writes do. */
+    private volatile long uses = 0;
+    private volatile long sharedUses = 0;
+    private volatile long bytesSaved = 0;
+
+    /**
+     * A pooled description and the number of tasks using it.
+     */
+    private static final class Entry {
+        private final String description;
+        private final long bytes;
+        private int uses = 0;
+
+        private Entry(String description) {
+            this.description = description;
+            this.bytes = estimateBytes(description);
+        }
+    }
+
+    /**
+     * Returns the pooled string equal to the given description and counts one
+     * more task using it, adding the description to the pool if no task uses
+     * it yet.
+     *
+     * @param description The description of a task joining the list.
+     * @return An equal string, shared with the other tasks that have it.
+     */
+    public String acquire(String description) {
+        Entry entry = descriptions.computeIfAbsent(description, Entry::new);
+        entry.uses++;
+        uses++;
+        if (entry.uses > 1) {
+            sharedUses++;
+            bytesSaved += entry.bytes;
+        }
+        return entry.description;
+    }
+
+    /**
+     * Counts one less task using the given description, forgetting the
+     * description once no task does.
+     *
+     * @param description The description of a task leaving the list.
+     */
+    public void release(String description) {
+        Entry entry = descriptions.get(description);
+        assert entry != null : "DescriptionPool: released a description that was never acquired";
+        uses--;
+        if (entry.uses > 1) {
+            sharedUses--;
+            bytesSaved -= entry.bytes;
+        }
+        if (--entry.uses == 0) {
+            descriptions.remove(description);
+        }
+    }
+
+    /**
+     * Estimates the heap taken by a string and its characters.
+     */
+    static long estimateBytes(String text) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > LATIN1_LIMIT) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) text.length() * bytesPerChar;
+        long alignedArrayBytes = (arrayBytes + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+        return STRING_OBJECT_BYTES + alignedArrayBytes;
+    }
+
+    /**
+     * Returns how many tasks use a pooled description.
+     *
+     * @return The number of tasks in the list.
+     */
+    public long getUses() {
+        return uses;
+    }
+
+    /**
+     * Returns how many tasks share their description with an earlier task.
+     *
+     * @return The count of shared descriptions.
+     */
+    public long getSharedUses() {
+        return sharedUses;
+    }
+
+    /**
+     * Returns the estimated heap the tasks in the list would take on top of
+     * what they take now if none of them shared a description.
+     *
+     * @return The saving in bytes.
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /**
+     * Returns a line for the {@code stats} command about what the pool saves.
+     *
+     * @return The summary line.
+     */
+    public String getSummary() {
+        return String.format(SUMMARY, getSharedUses(), getUses(), getBytesSaved());
+    }
+}
@@ -2,16 +2,16 @@ package goldexperiencerequiem;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+import javafx.scene.shape.Circle;
 
-import java.io.IOException;
 import java.util.Collections;
 
 /**
@@ -20,60 +20,84 @@ import java.util.Collections;
  * and a label containing text from the speaker.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
-
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    /**
+     * The dialog box stylesheet, resolved once and shared by every box.
+     */
+    private static final String STYLESHEET = DialogBox.class.getResource("/css/dialog-box.css").toExternalForm();
+    private static final double PICTURE_SIZE = 50.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+    private static final String USER_STYLE_CLASS = "user-label";
+    private static final String DUKE_STYLE_CLASS = "duke-label";
+    private static final String ERROR_STYLE_CLASS = "error-label";
+    private static final String PENDING_STYLE_CLASS = "pending-label";
 
-        // Clip the profile picture to a circle
-        // We assume fitWidth/fitHeight are set in FXML or are square
-        javafx.scene.shape.Circle clip = new javafx.scene.shape.Circle(25, 25, 25);
-        displayPicture.setClip(clip);
-    }
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+    private boolean isFlipped = false;
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the
-     * right.
+     * Creates an empty dialog box, to be filled in with {@link #show}.
+     * <p>
+     * The layout is built in code rather than loaded from FXML, since parsing
+     * the FXML and reflecting over the controller for every box was the bulk
+     * of the cost of showing a message.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-    }
+    public DialogBox() {
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPadding(PADDING);
+        getStylesheets().add(STYLESHEET);
+
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.setWrapText(true);
 
-    public static DialogBox getUserDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.dialog.getStyleClass().add("user-label");
-        return db;
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+        // Clip the profile picture to a circle
+        double radius = PICTURE_SIZE / 2;
+        displayPicture.setClip(new Circle(radius, radius, radius));
+
+        getChildren().addAll(dialog, displayPicture);
     }
 
-    public static DialogBox getDukeDialog(String text, Image img, boolean isError) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        if (isError) {
-            db.dialog.getStyleClass().add("error-label");
+    /**
+     * Fills the dialog box with a message, laid out for whoever sent it.
+     *
+     * @param message The message to show.
+     * @param img     The picture of the message's speaker.
+     */
+    public void show(ChatMessage message, Image img) {
+        dialog.setText(message.getText());
+        displayPicture.setImage(img);
+        dialog.getStyleClass().removeAll(USER_STYLE_CLASS, DUKE_STYLE_CLASS, ERROR_STYLE_CLASS,
+                PENDING_STYLE_CLASS);
+        if (message.getSpeaker() == ChatMessage.Speaker.USER) {
+            setFlipped(false);
+            dialog.getStyleClass().add(USER_STYLE_CLASS);
+        } else if (message.isPending()) {
+            setFlipped(true);
+            dialog.getStyleClass().add(PENDING_STYLE_CLASS);
         } else {
-            db.dialog.getStyleClass().add("duke-label");
+            setFlipped(true);
+            dialog.getStyleClass().add(message.isError() ? ERROR_STYLE_CLASS : DUKE_STYLE_CLASS);
         }
-        return db;
     }
 
-    // Maintain backward compatibility if needed, or just update call sites
-    public static DialogBox getDukeDialog(String text, Image img) {
-        return getDukeDialog(text, img, false);
+    /**
+     * Puts the ImageView on the left and text on the right if flipped, or the
+     * other way round if not.
+     */
+    private void setFlipped(boolean shouldFlip) {
+        if (isFlipped == shouldFlip) {
+            return;
+        }
+        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
+        Collections.reverse(tmp);
+        getChildren().setAll(tmp);
+        setAlignment(shouldFlip ? Pos.TOP_LEFT : Pos.TOP_RIGHT);
+        isFlipped = shouldFlip;
     }
 }
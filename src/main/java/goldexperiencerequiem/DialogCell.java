@@ -0,0 +1,49 @@
+package goldexperiencerequiem;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * Shows one conversation message in the GUI's list view.
+ * <p>
+ * The list view only creates as many cells as fit on screen and reuses them
+ * while scrolling, so each cell builds a single {@link DialogBox} and refills
+ * it for whichever message it is given.
+ */
+public class DialogCell extends ListCell<ChatMessage> {
+
+    /** Room left for the vertical scroll bar and cell padding. */
+    private static final double SCROLL_BAR_ALLOWANCE = 20;
+
+    private final DialogBox dialogBox = new DialogBox();
+    private final Image userImage;
+    private final Image requiemImage;
+
+    /**
+     * Creates an empty cell.
+     *
+     * @param userImage    Picture shown next to the user's messages.
+     * @param requiemImage Picture shown next to Requiem's messages.
+     */
+    public DialogCell(Image userImage, Image requiemImage) {
+        this.userImage = userImage;
+        this.requiemImage = requiemImage;
+        // Let the cell take its width from the list view rather than from the
+        // text, so long messages wrap instead of scrolling sideways
+        setPrefWidth(0);
+        dialogBox.maxWidthProperty().bind(widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        setText(null);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        boolean isUser = message.getSpeaker() == ChatMessage.Speaker.USER;
+        dialogBox.show(message, isUser ? userImage : requiemImage);
+        setGraphic(dialogBox);
+    }
+}
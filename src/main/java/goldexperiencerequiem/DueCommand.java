@@ -0,0 +1,38 @@
+package goldexperiencerequiem;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a command to list the deadlines due on or before a date.
+ */
+public class DueCommand extends Command {
+    private final LocalDate date;
+
+    /**
+     * Creates a new DueCommand for the given date.
+     *
+     * @param date The last due date to include.
+     */
+    public DueCommand(LocalDate date) {
+        this.date = date;
+    }
+
+    /**
+     * Executes the due command by looking up the deadlines in the date index
+     * and displaying them.
+     *
+     * @param tasks   The list of tasks.
+     * @param ui      The user interface.
+     * @param storage The storage handler (not used in this command).
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        assert date != null : "DueCommand: date should not be null";
+        ui.showScheduledTasks(tasks.findDueBy(date));
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
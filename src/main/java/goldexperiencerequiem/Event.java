@@ -13,7 +13,7 @@ public class Event extends Task {
      private static final String TO_PREFIX = " to: ";
      private static final String SUFFIX = ")";
      private static final String FILE_DELIMITER = " | ";
-     private static final String DATE_OUTPUT_FORMAT = "MMM d yyyy";
+     private static final DateTimeFormatter DATE_OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("MMM d yyyy");
 
      protected LocalDate from;
      protected LocalDate to;
@@ -32,26 +32,28 @@ public class Event extends Task {
      }
 
      /**
-      * Returns the string representation of the event task.
+      * Builds the string representation of the event task.
       *
+      * @param isMarkedDone The done status to render.
       * @return The event task icon, status icon, description, from date, and to
       *         date.
       */
      @Override
-     public String toString() {
-          DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_OUTPUT_FORMAT);
-          return "[" + EVENT_TYPE_ICON + "]" + super.toString() + FROM_PREFIX
-                    + from.format(formatter) + TO_PREFIX + to.format(formatter) + SUFFIX;
+     protected String renderString(boolean isMarkedDone) {
+          return "[" + EVENT_TYPE_ICON + "]" + super.renderString(isMarkedDone) + FROM_PREFIX
+                    + from.format(DATE_OUTPUT_FORMATTER) + TO_PREFIX + to.format(DATE_OUTPUT_FORMATTER) + SUFFIX;
      }
 
      /**
-      * Returns the file-friendly string representation of the event task.
+      * Builds the file-friendly string representation of the event task.
       *
+      * @param isMarkedDone The done status to render.
       * @return File format string.
       */
      @Override
-     public String toFileFormat() {
-          return EVENT_TYPE_ICON + FILE_DELIMITER + super.toFileFormat() + FILE_DELIMITER + from + FILE_DELIMITER + to;
+     protected String renderFileFormat(boolean isMarkedDone) {
+          return EVENT_TYPE_ICON + FILE_DELIMITER + super.renderFileFormat(isMarkedDone) + FILE_DELIMITER + from
+                    + FILE_DELIMITER + to;
      }
 
      @Override
@@ -6,15 +6,16 @@ package goldexperiencerequiem;
 public class ExitCommand extends Command {
     /**
      * Executes the exit command.
-     * Displays the exit message to the user.
+     * Flushes any pending writes and displays the exit message to the user.
      *
      * @param tasks   The TaskList (not used in this command).
      * @param ui      The Ui object to interact with the user.
-     * @param storage The Storage object (not used in this command).
+     * @param storage The Storage object to flush.
      */
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) {
         assert ui != null : "ExitCommand: ui should not be null";
+        storage.flush();
         ui.showExit();
     }
 
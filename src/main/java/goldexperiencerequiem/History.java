@@ -0,0 +1,287 @@
+package goldexperiencerequiem;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * The recent changes to a {@link TaskList}, for the undo and redo commands.
+ * <p>
+ * Each change is kept as just enough to reverse it: an add keeps the added
+ * task, a delete keeps the removed tasks and where they were, and a mark or
+ * unmark keeps which tasks it touched and their old statuses. The list itself
+ * is never copied, so undoing or redoing a change costs as much as the change
+ * did, however long the list is. Undone and redone changes are persisted
+ * through {@link Storage} like any other change.
+ * <p>
+ * The history is bounded by an estimate of the memory its changes hold. Once
+ * it goes over, the oldest changes are forgotten; a single change bigger than
+ * the whole bound cannot be undone at all.
+ */
+public class History {
+
+    /** The default bound on the memory held by the history, in bytes. */
+    public static final long DEFAULT_MAX_BYTES = 4L << 20;
+
+    /** Rough size of a change object, its arrays' headers and its deque slot. */
+    private static final long CHANGE_BYTES = 64;
+
+    /** Rough size of a task object and its dates, without its description. */
+    private static final long TASK_BYTES = 72;
+
+    private static final String ADD_NAME = "add";
+    private static final String DELETE_NAME = "delete";
+    private static final String MARK_NAME = "mark";
+    private static final String UNMARK_NAME = "unmark";
+
+    private final ArrayDeque<Change> undoable = new ArrayDeque<>();
+    private final ArrayDeque<Change> redoable = new ArrayDeque<>();
+    private long maxBytes;
+    private long bytes = 0;
+
+    /**
+     * A change that can be reversed and replayed.
+     */
+    private abstract static class Change {
+        private final String name;
+        private final int count;
+        private final long bytes;
+
+        Change(String name, int count, long bytes) {
+            this.name = name;
+            this.count = count;
+            this.bytes = bytes;
+        }
+
+        abstract void undo(TaskList tasks, Storage storage);
+
+        abstract void redo(TaskList tasks, Storage storage);
+
+        String describe() {
+            return count == 1 ? name : name + " of " + count + " tasks";
+        }
+    }
+
+    /**
+     * A task appended to the end of the list.
+     */
+    private static class AddChange extends Change {
+        private final Task task;
+
+        AddChange(Task task) {
+            super(ADD_NAME, 1, CHANGE_BYTES + taskBytes(task));
+            this.task = task;
+        }
+
+        @Override
+        void undo(TaskList tasks, Storage storage) {
+            int index = tasks.size() - 1;
+            assert tasks.getTask(index).equals(task) : "History: an undone add should be the last task";
+            tasks.deleteTask(index);
+            storage.recordDelete(tasks.getAllTasks(), index);
+        }
+
+        @Override
+        void redo(TaskList tasks, Storage storage) {
+            tasks.addTask(task);
+            storage.recordAdd(tasks.getAllTasks(), task);
+        }
+    }
+
+    /**
+     * Tasks removed from the list.
+     */
+    private static class DeleteChange extends Change {
+        private final int[] indices;
+        private final List<Task> removedTasks;
+
+        DeleteChange(int[] indices, List<Task> removedTasks) {
+            super(DELETE_NAME, indices.length, CHANGE_BYTES + (long) Integer.BYTES * indices.length
+                    + removedTasks.stream().mapToLong(History::taskBytes).sum());
+            this.indices = indices;
+            this.removedTasks = removedTasks;
+        }
+
+        @Override
+        void undo(TaskList tasks, Storage storage) {
+            tasks.insertTasks(indices, removedTasks);
+            storage.recordInserts(tasks.getAllTasks(), indices, removedTasks);
+        }
+
+        @Override
+        void redo(TaskList tasks, Storage storage) {
+            tasks.deleteTasks(indices);
+            storage.recordDeletes(tasks.getAllTasks(), indices);
+        }
+    }
+
+    /**
+     * Tasks marked as done or not done.
+     */
+    private static class StatusChange extends Change {
+        private final int[] indices;
+        private final boolean[] wasDone;
+        private final boolean isDone;
+
+        StatusChange(int[] indices, boolean[] wasDone, boolean isDone) {
+            super(isDone ? MARK_NAME : UNMARK_NAME, indices.length,
+                    CHANGE_BYTES + (long) (Integer.BYTES + 1) * indices.length);
+            this.indices = indices;
+            this.wasDone = wasDone;
+            this.isDone = isDone;
+        }
+
+        @Override
+        void undo(TaskList tasks, Storage storage) {
+            int doneCount = 0;
+            for (boolean done : wasDone) {
+                doneCount += done ? 1 : 0;
+            }
+            int[] done = new int[doneCount];
+            int[] undone = new int[indices.length - doneCount];
+            int doneNext = 0;
+            int undoneNext = 0;
+            for (int i = 0; i < indices.length; i++) {
+                tasks.setDone(indices[i], wasDone[i]);
+                if (wasDone[i]) {
+                    done[doneNext++] = indices[i];
+                } else {
+                    undone[undoneNext++] = indices[i];
+                }
+            }
+            if (done.length > 0) {
+                storage.recordMarks(tasks.getAllTasks(), done);
+            }
+            if (undone.length > 0) {
+                storage.recordUnmarks(tasks.getAllTasks(), undone);
+            }
+        }
+
+        @Override
+        void redo(TaskList tasks, Storage storage) {
+            for (int index : indices) {
+                tasks.setDone(index, isDone);
+            }
+            if (isDone) {
+                storage.recordMarks(tasks.getAllTasks(), indices);
+            } else {
+                storage.recordUnmarks(tasks.getAllTasks(), indices);
+            }
+        }
+    }
+
+    /**
+     * Creates an empty history.
+     *
+     * @param maxBytes The most memory the history may hold, in bytes.
+     */
+    public History(long maxBytes) {
+        setMaxBytes(maxBytes);
+    }
+
+    /**
+     * Sets the most memory the history may hold, forgetting the oldest
+     * changes if it now holds more.
+     *
+     * @param maxBytes The bound in bytes; 0 turns undo off.
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        assert maxBytes >= 0 : "History: maxBytes should not be negative";
+        this.maxBytes = maxBytes;
+        trim();
+    }
+
+    private static long taskBytes(Task task) {
+        return TASK_BYTES + DescriptionPool.estimateBytes(task.description);
+    }
+
+    /**
+     * Records that a task was appended to the list.
+     *
+     * @param task The task that was added.
+     */
+    public void recordAdd(Task task) {
+        push(new AddChange(task));
+    }
+
+    /**
+     * Records that tasks were deleted from the list.
+     *
+     * @param indices      The positions the tasks were removed from, in
+     *                     ascending order and without repeats.
+     * @param removedTasks The removed tasks, in the same order.
+     */
+    public void recordDelete(int[] indices, List<Task> removedTasks) {
+        assert indices.length == removedTasks.size() : "History: every removed task should have a position";
+        push(new DeleteChange(indices, removedTasks));
+    }
+
+    /**
+     * Records that tasks were marked as done or not done.
+     *
+     * @param indices The positions of the tasks.
+     * @param wasDone Whether each task was done before the change.
+     * @param isDone  Whether the tasks were marked as done, rather than not
+     *                done.
+     */
+    public void recordStatusChange(int[] indices, boolean[] wasDone, boolean isDone) {
+        assert indices.length == wasDone.length : "History: every task should have an old status";
+        push(new StatusChange(indices, wasDone, isDone));
+    }
+
+    private synchronized void push(Change change) {
+        bytes -= redoable.stream().mapToLong(redone -> redone.bytes).sum();
+        redoable.clear();
+        undoable.addLast(change);
+        bytes += change.bytes;
+        trim();
+    }
+
+    /**
+     * Forgets the oldest undoable changes, and then any redoable ones, until
+     * the history is within its bound.
+     */
+    private void trim() {
+        while (bytes > maxBytes && !undoable.isEmpty()) {
+            bytes -= undoable.pollFirst().bytes;
+        }
+        while (bytes > maxBytes && !redoable.isEmpty()) {
+            bytes -= redoable.pollLast().bytes;
+        }
+    }
+
+    /**
+     * Reverses the most recent change that has not been undone.
+     *
+     * @param tasks   The task list the change was made to.
+     * @param storage The storage to persist the reversal to.
+     * @return A short description of the change, or null if there is nothing
+     *         to undo.
+     */
+    public synchronized String undo(TaskList tasks, Storage storage) {
+        Change change = undoable.pollLast();
+        if (change == null) {
+            return null;
+        }
+        change.undo(tasks, storage);
+        redoable.addLast(change);
+        return change.describe();
+    }
+
+    /**
+     * Replays the most recently undone change.
+     *
+     * @param tasks   The task list the change was undone on.
+     * @param storage The storage to persist the change to.
+     * @return A short description of the change, or null if there is nothing
+     *         to redo.
+     */
+    public synchronized String redo(TaskList tasks, Storage storage) {
+        Change change = redoable.pollLast();
+        if (change == null) {
+            return null;
+        }
+        change.redo(tasks, storage);
+        undoable.addLast(change);
+        return change.describe();
+    }
+}
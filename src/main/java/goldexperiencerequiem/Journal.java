@@ -0,0 +1,572 @@
+package goldexperiencerequiem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Append-only log of task list mutations.
+ * <p>
+ * Each mutation is written as a single line tagged with an increasing sequence
+ * number, so recording a change costs the same no matter how many tasks are in
+ * the list. The log is replayed on top of the last snapshot to rebuild the
+ * current list; records already covered by the snapshot are skipped. A
+ * command that changes many tasks at once is still one record, listing the
+ * indices it changed as ranges.
+ * <p>
+ * During compaction the active log is rotated aside, so new records can keep
+ * being appended while the rotated records are folded into a new snapshot.
+ */
+public class Journal {
+
+    private static final String RECORD_DELIMITER = " | ";
+    private static final String RECORD_SPLIT_PATTERN = " \\| ";
+    private static final int RECORD_SPLIT_LIMIT = 3;
+    private static final String ROTATED_SUFFIX = ".compacting";
+
+    private static final String ADD_OP = "A";
+    private static final String DELETE_OP = "D";
+    private static final String MARK_OP = "M";
+    private static final String UNMARK_OP = "U";
+    private static final String INSERT_OP = "I";
+
+    private static final String INDEX_SEPARATOR = ",";
+    private static final char RANGE_SEPARATOR = '-';
+
+    private static final int SYNC_BATCH_SIZE = 64;
+    private static final long SYNC_INTERVAL_NANOS = 1_000_000_000L;
+    private static final String SYNC_THREAD_NAME = "requiem-journal-sync";
+
+    /**
+     * Forces batched records that no later commit has forced once the sync
+     * interval is up. Shared by all journals; its thread is only started
+     * when the first sync is scheduled.
+     */
+    private static final ScheduledExecutorService SYNC_TIMER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, SYNC_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Path path;
+    private final Path rotatedPath;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    private long lastSeq = 0;
+    private SyncPolicy syncPolicy = SyncPolicy.BATCHED;
+    private int unsyncedRecords = 0;
+    private long lastSyncNanos = System.nanoTime();
+
+    /** The timed sync waiting to run, or null if none is scheduled. */
+    private ScheduledFuture<?> pendingSync;
+
+    /**
+     * Bytes handed to the operating system since the journal was created,
+     * and the position in the open file they were last counted up to.
+     */
+    private long bytesWritten = 0;
+    private long countedPosition = 0;
+
+    /**
+     * Creates a journal backed by the given file.
+     *
+     * @param path Location of the journal file.
+     */
+    public Journal(Path path) {
+        this.path = path;
+        this.rotatedPath = Paths.get(path + ROTATED_SUFFIX);
+    }
+
+    /**
+     * Returns the sequence number of the most recent record.
+     *
+     * @return The last sequence number written or replayed, or 0 if none.
+     */
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Sets when appended records are forced to disk.
+     *
+     * @param syncPolicy The policy to apply to subsequent appends.
+     */
+    public synchronized void setSyncPolicy(SyncPolicy syncPolicy) {
+        this.syncPolicy = syncPolicy;
+    }
+
+    /**
+     * Continues numbering after the given sequence number. Used when the
+     * journal is empty and the snapshot already covers records up to it.
+     *
+     * @param seq The sequence number covered by the snapshot.
+     */
+    public synchronized void startAfter(long seq) {
+        lastSeq = Math.max(lastSeq, seq);
+    }
+
+    /**
+     * Records that a task was appended to the list.
+     *
+     * @param taskRecord The added task, in its file format.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendAdd(String taskRecord) throws IOException {
+        append(ADD_OP, taskRecord);
+    }
+
+    /**
+     * Records that the task at the given index was removed.
+     *
+     * @param index Zero-based index of the removed task.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendDelete(int index) throws IOException {
+        append(DELETE_OP, String.valueOf(index));
+    }
+
+    /**
+     * Records that the task at the given index was marked as done.
+     *
+     * @param index Zero-based index of the marked task.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendMark(int index) throws IOException {
+        append(MARK_OP, String.valueOf(index));
+    }
+
+    /**
+     * Records that the task at the given index was marked as not done.
+     *
+     * @param index Zero-based index of the unmarked task.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendUnmark(int index) throws IOException {
+        append(UNMARK_OP, String.valueOf(index));
+    }
+
+    /**
+     * Records that a task was put into the list at the given index, as when a
+     * delete is undone.
+     *
+     * @param index      Zero-based index the task now has.
+     * @param taskRecord The inserted task, in its file format.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendInsert(int index, String taskRecord) throws IOException {
+        append(INSERT_OP, index + RECORD_DELIMITER + taskRecord);
+    }
+
+    /**
+     * Records that the tasks at the given indices were removed together.
+     *
+     * @param indices Zero-based indices of the removed tasks, in ascending
+     *                order and without repeats.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendDeletes(int[] indices) throws IOException {
+        append(DELETE_OP, formatIndices(indices));
+    }
+
+    /**
+     * Records that the tasks at the given indices were marked as done.
+     *
+     * @param indices Zero-based indices of the marked tasks, in ascending
+     *                order and without repeats.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendMarks(int[] indices) throws IOException {
+        append(MARK_OP, formatIndices(indices));
+    }
+
+    /**
+     * Records that the tasks at the given indices were marked as not done.
+     *
+     * @param indices Zero-based indices of the unmarked tasks, in ascending
+     *                order and without repeats.
+     * @throws IOException If the record cannot be written.
+     */
+    public void appendUnmarks(int[] indices) throws IOException {
+        append(UNMARK_OP, formatIndices(indices));
+    }
+
+    /**
+     * Writes ascending indices compactly, with runs of consecutive indices as
+     * ranges, e.g. {@code 0-499,503}. A single index is written as just the
+     * number, the same as in a record for one task.
+     */
+    static String formatIndices(int[] indices) {
+        assert indices.length > 0 : "Journal: there should be at least one index";
+        StringBuilder payload = new StringBuilder();
+        int i = 0;
+        while (i < indices.length) {
+            int runEnd = i;
+            while (runEnd + 1 < indices.length && indices[runEnd + 1] == indices[runEnd] + 1) {
+                runEnd++;
+            }
+            if (payload.length() > 0) {
+                payload.append(INDEX_SEPARATOR);
+            }
+            payload.append(indices[i]);
+            if (runEnd > i) {
+                payload.append(RANGE_SEPARATOR).append(indices[runEnd]);
+            }
+            i = runEnd + 1;
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Reads indices written by {@link #formatIndices}.
+     *
+     * @throws NumberFormatException If the payload is not a list of ascending
+     *                               indices.
+     */
+    static int[] parseIndices(String payload) {
+        String[] parts = payload.split(INDEX_SEPARATOR);
+        int[] starts = new int[parts.length];
+        int[] ends = new int[parts.length];
+        int count = 0;
+        for (int i = 0; i < parts.length; i++) {
+            int dash = parts[i].indexOf(RANGE_SEPARATOR);
+            starts[i] = Integer.parseInt(dash == -1 ? parts[i] : parts[i].substring(0, dash));
+            ends[i] = dash == -1 ? starts[i] : Integer.parseInt(parts[i].substring(dash + 1));
+            if (starts[i] < 0 || ends[i] < starts[i] || (i > 0 && starts[i] <= ends[i - 1])) {
+                throw new NumberFormatException("Indices out of order: " + payload);
+            }
+            count += ends[i] - starts[i] + 1;
+        }
+        int[] indices = new int[count];
+        int next = 0;
+        for (int i = 0; i < parts.length; i++) {
+            for (int index = starts[i]; index <= ends[i]; index++) {
+                indices[next++] = index;
+            }
+        }
+        return indices;
+    }
+
+    private synchronized void append(String op, String payload) throws IOException {
+        if (writer == null) {
+            if (path.getParent() != null && !Files.exists(path.getParent())) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            countedPosition = channel.size();
+        }
+        lastSeq++;
+        writer.write(lastSeq + RECORD_DELIMITER + op + RECORD_DELIMITER + payload);
+        writer.newLine();
+        unsyncedRecords++;
+    }
+
+    /**
+     * Hands every record appended since the last commit to the operating
+     * system, and forces them to disk if the sync policy says it is time.
+     *
+     * @throws IOException If the records cannot be written.
+     */
+    public synchronized void commit() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        flushWriter();
+        boolean isDue;
+        switch (syncPolicy) {
+            case ALWAYS:
+                isDue = true;
+                break;
+            case BATCHED:
+                isDue = unsyncedRecords >= SYNC_BATCH_SIZE
+                        || System.nanoTime() - lastSyncNanos >= SYNC_INTERVAL_NANOS;
+                break;
+            default:
+                isDue = false;
+                break;
+        }
+        if (isDue) {
+            sync();
+        } else if (syncPolicy == SyncPolicy.BATCHED && unsyncedRecords > 0 && pendingSync == null) {
+            // Without a later commit, nothing else would force these records
+            // if the user goes idle now
+            long delayNanos = Math.max(0, SYNC_INTERVAL_NANOS - (System.nanoTime() - lastSyncNanos));
+            pendingSync = SYNC_TIMER.schedule(this::syncPending, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Forces the records a timed sync was scheduled for, unless a commit or
+     * close has forced them already. Records appended since the last commit
+     * are handed over and forced with them, since the count of unsynced
+     * records includes them.
+     */
+    private synchronized void syncPending() {
+        pendingSync = null;
+        if (writer == null || syncPolicy == SyncPolicy.NEVER) {
+            return;
+        }
+        try {
+            flushWriter();
+            sync();
+        } catch (IOException e) {
+            // The records stay counted as unsynced, so the next commit or
+            // close tries again
+        }
+    }
+
+    /**
+     * Forces every committed record to disk now, unless the sync policy is
+     * {@link SyncPolicy#NEVER}.
+     *
+     * @throws IOException If the records cannot be forced.
+     */
+    public synchronized void syncNow() throws IOException {
+        if (writer != null && syncPolicy != SyncPolicy.NEVER) {
+            flushWriter();
+            sync();
+        }
+    }
+
+    /**
+     * Hands buffered records to the operating system and counts their bytes.
+     * The journal is opened for appending, so the channel's position is
+     * always the end of the file.
+     */
+    private void flushWriter() throws IOException {
+        writer.flush();
+        long position = channel.position();
+        bytesWritten += position - countedPosition;
+        countedPosition = position;
+    }
+
+    /**
+     * Returns the number of records appended since they were last forced to
+     * disk.
+     */
+    synchronized int getUnsyncedRecords() {
+        return unsyncedRecords;
+    }
+
+    /**
+     * Returns the number of bytes of records handed to the operating system
+     * since the journal was created.
+     *
+     * @return The byte count.
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void sync() throws IOException {
+        if (channel != null && unsyncedRecords > 0) {
+            channel.force(false);
+        }
+        unsyncedRecords = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Applies the records newer than the given sequence number, in order, to
+     * the given list. Records that cannot be parsed or do not fit the list are
+     * skipped, the same way corrupted lines in the data file are.
+     *
+     * @param tasks      The list to apply the records to.
+     * @param taskParser Turns the payload of an add record back into a task.
+     * @param afterSeq   Sequence number already covered by the snapshot.
+     * @return The number of records applied.
+     * @throws IOException If the journal cannot be read.
+     */
+    public synchronized int replay(ArrayList<Task> tasks, Function<String, Task> taskParser, long afterSeq)
+            throws IOException {
+        lastSeq = Math.max(lastSeq, afterSeq);
+        return replayFile(rotatedPath, tasks, taskParser, afterSeq)
+                + replayFile(path, tasks, taskParser, afterSeq);
+    }
+
+    private int replayFile(Path file, ArrayList<Task> tasks, Function<String, Task> taskParser, long afterSeq)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int applied = 0;
+        List<String> records = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String record : records) {
+            if (applyRecord(tasks, record, taskParser, afterSeq)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private boolean applyRecord(ArrayList<Task> tasks, String record, Function<String, Task> taskParser,
+            long afterSeq) {
+        String[] parts = record.split(RECORD_SPLIT_PATTERN, RECORD_SPLIT_LIMIT);
+        if (parts.length < RECORD_SPLIT_LIMIT) {
+            return false;
+        }
+        try {
+            long seq = Long.parseLong(parts[0]);
+            if (seq <= afterSeq) {
+                return false;
+            }
+            lastSeq = Math.max(lastSeq, seq);
+            switch (parts[1]) {
+                case ADD_OP:
+                    Task task = taskParser.apply(parts[2]);
+                    if (task == null) {
+                        return false;
+                    }
+                    tasks.add(task);
+                    return true;
+                case INSERT_OP:
+                    return insert(tasks, parts[2], taskParser);
+                case DELETE_OP:
+                    removeAll(tasks, checkedIndices(parts[2], tasks.size()));
+                    return true;
+                case MARK_OP:
+                    for (int index : checkedIndices(parts[2], tasks.size())) {
+                        tasks.get(index).markAsDone();
+                    }
+                    return true;
+                case UNMARK_OP:
+                    for (int index : checkedIndices(parts[2], tasks.size())) {
+                        tasks.get(index).markAsUndone();
+                    }
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            // Handle corruption by skipping the record
+            return false;
+        }
+    }
+
+    /**
+     * Applies an insert record, whose payload is the index followed by the
+     * task in its file format.
+     */
+    private static boolean insert(ArrayList<Task> tasks, String payload, Function<String, Task> taskParser) {
+        String[] parts = payload.split(RECORD_SPLIT_PATTERN, 2);
+        if (parts.length < 2) {
+            return false;
+        }
+        int index = Integer.parseInt(parts[0]);
+        Task task = taskParser.apply(parts[1]);
+        if (task == null) {
+            return false;
+        }
+        tasks.add(index, task);
+        return true;
+    }
+
+    /**
+     * Reads the indices of a record and checks that they all fit the list, so
+     * a record is either applied in full or skipped.
+     */
+    private static int[] checkedIndices(String payload, int size) {
+        int[] indices = parseIndices(payload);
+        if (indices[indices.length - 1] >= size) {
+            throw new IndexOutOfBoundsException("Index " + indices[indices.length - 1] + " out of bounds for length "
+                    + size);
+        }
+        return indices;
+    }
+
+    /**
+     * Removes the tasks at the given ascending indices in one pass, moving
+     * each remaining task at most once.
+     */
+    private static void removeAll(ArrayList<Task> tasks, int[] indices) {
+        if (indices.length == 1) {
+            tasks.remove(indices[0]);
+            return;
+        }
+        int kept = indices[0];
+        int next = 0;
+        for (int i = indices[0]; i < tasks.size(); i++) {
+            if (next < indices.length && indices[next] == i) {
+                next++;
+            } else {
+                tasks.set(kept++, tasks.get(i));
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+    }
+
+    /**
+     * Moves the active records aside so they can be compacted, and starts a
+     * fresh active journal for subsequent records. Records left over from an
+     * interrupted compaction are kept in front of the newly rotated ones.
+     *
+     * @throws IOException If the journal cannot be moved.
+     */
+    public synchronized void rotate() throws IOException {
+        close();
+        if (!Files.exists(path)) {
+            return;
+        }
+        if (Files.exists(rotatedPath)) {
+            Files.write(rotatedPath, Files.readAllBytes(path), StandardOpenOption.APPEND);
+            Files.delete(path);
+        } else {
+            Files.move(path, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Deletes the rotated records once a snapshot covering them is in place.
+     *
+     * @throws IOException If the rotated journal cannot be removed.
+     */
+    public synchronized void discardRotated() throws IOException {
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    /**
+     * Discards every record in the journal. Called once a full save has made
+     * the records redundant.
+     *
+     * @throws IOException If the journal cannot be removed.
+     */
+    public synchronized void clear() throws IOException {
+        close();
+        Files.deleteIfExists(rotatedPath);
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Closes the underlying writer, if one is open. Unless the sync policy is
+     * {@link SyncPolicy#NEVER}, records not yet forced to disk are forced first.
+     *
+     * @throws IOException If the writer cannot be closed.
+     */
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            flushWriter();
+            if (syncPolicy != SyncPolicy.NEVER) {
+                sync();
+            }
+            writer.close();
+            writer = null;
+            channel = null;
+        }
+    }
+}
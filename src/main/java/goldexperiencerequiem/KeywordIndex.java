@@ -0,0 +1,237 @@
+package goldexperiencerequiem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from description words to the tasks containing them.
+ * <p>
+ * Each task is registered under an ordinal that increases with its position
+ * in the task list. A word's posting list is an {@link OrdinalList}, a sorted
+ * array of those ordinals, so it is already in list order, costs eight bytes
+ * per task, and search results can be returned in that order without
+ * sorting. The index holds no task references. Words are kept in
+ * sorted order, so the words starting with a query word are next to each
+ * other.
+ */
+public class KeywordIndex {
+
+    private static final String OR_DELIMITER = "/or";
+    private static final String WHITESPACE = "\\s+";
+    private static final long[] NO_MATCHES = new long[0];
+
+    private final TreeMap<String, OrdinalList> postings = new TreeMap<>();
+
+    /**
+     * Registers a task under every word of its description.
+     *
+     * @param task    The task to index.
+     * @param ordinal The task's position-ordered ordinal.
+     */
+    public void add(Task task, long ordinal) {
+        for (String token : tokenize(task.description)) {
+            postings.computeIfAbsent(token, key -> new OrdinalList()).add(ordinal);
+        }
+    }
+
+    /**
+     * Removes a task from every posting list it appears in.
+     *
+     * @param task    The task to remove.
+     * @param ordinal The ordinal the task was indexed under.
+     */
+    public void remove(Task task, long ordinal) {
+        for (String token : tokenize(task.description)) {
+            OrdinalList posting = postings.get(token);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Returns the ordinals of the tasks matching a query.
+     * <p>
+     * Each word in the query must start a word of a task's description for
+     * the task to match, so {@code book} finds "books" but not "notebook".
+     * A standalone {@code /or} splits the query into alternatives: a task
+     * matches if it matches any of them. Matching ignores case.
+     *
+     * @param query The search query.
+     * @return The ordinals of the matching tasks, in ascending order.
+     */
+    public long[] search(String query) {
+        long[] matches = NO_MATCHES;
+        for (List<String> group : parseGroups(query)) {
+            if (!group.isEmpty()) {
+                matches = union(matches, matchAll(group, true));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the ordinals of the tasks whose descriptions contain every one
+     * of the given words as a whole word.
+     *
+     * @param words Lower-case words, as returned by {@link #tokenize}.
+     * @return The ordinals of the matching tasks, in ascending order.
+     */
+    public long[] searchWords(List<String> words) {
+        return words.isEmpty() ? NO_MATCHES : matchAll(words, false);
+    }
+
+    /**
+     * Splits a query into groups of words at every {@code /or} that stands on
+     * its own, so a word such as {@code /ordinary} is searched for instead.
+     */
+    private static List<List<String>> parseGroups(String query) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>();
+        groups.add(group);
+        for (String part : query.strip().split(WHITESPACE)) {
+            if (part.equalsIgnoreCase(OR_DELIMITER)) {
+                group = new ArrayList<>();
+                groups.add(group);
+                continue;
+            }
+            for (String token : tokenize(part)) {
+                if (!group.contains(token)) {
+                    group.add(token);
+                }
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the ordinals of the tasks matching every one of the given
+     * words, or words starting with them. Walks the shortest list of matches
+     * and probes the others.
+     */
+    private long[] matchAll(List<String> tokens, boolean isPrefix) {
+        List<long[]> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            long[] matches = isPrefix ? matchPrefix(token) : matchWord(token);
+            if (matches.length == 0) {
+                return NO_MATCHES;
+            }
+            lists.add(matches);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        long[] shortest = lists.get(0);
+        long[] result = new long[shortest.length];
+        int count = 0;
+        for (long ordinal : shortest) {
+            if (isInAll(ordinal, lists)) {
+                result[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static boolean isInAll(long ordinal, List<long[]> lists) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (Arrays.binarySearch(lists.get(i), ordinal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] matchWord(String word) {
+        OrdinalList posting = postings.get(word);
+        return posting == null ? NO_MATCHES : posting.toArray();
+    }
+
+    /**
+     * Returns the ordinals of the tasks with a word starting with the given
+     * one, in ascending order and without repeats.
+     */
+    private long[] matchPrefix(String prefix) {
+        // Words are letters and digits only, so none sorts past this bound
+        SortedMap<String, OrdinalList> words = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (words.size() == 1) {
+            return words.values().iterator().next().toArray();
+        }
+        int total = 0;
+        for (OrdinalList posting : words.values()) {
+            total += posting.size();
+        }
+        long[] matches = new long[total];
+        int count = 0;
+        for (OrdinalList posting : words.values()) {
+            posting.copyTo(matches, count);
+            count += posting.size();
+        }
+        // A task with several of the words appears once for each
+        Arrays.sort(matches);
+        int distinct = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (i == 0 || matches[i] != matches[i - 1]) {
+                matches[distinct++] = matches[i];
+            }
+        }
+        return Arrays.copyOf(matches, distinct);
+    }
+
+    /**
+     * Merges two ascending arrays of ordinals into one without repeats.
+     */
+    private static long[] union(long[] first, long[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        long[] merged = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < first.length || j < second.length) {
+            long next;
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                next = first[i++];
+            } else if (i == first.length || second[j] < first[i]) {
+                next = second[j++];
+            } else {
+                next = first[i++];
+                j++;
+            }
+            merged[count++] = next;
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    /**
+     * Splits text into lower-case words made of letters and digits.
+     *
+     * @param text The text to split.
+     * @return The distinct words in the text, in order of appearance.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,98 @@
+package goldexperiencerequiem;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long something takes, cheaply enough to leave on all the time.
+ * <p>
+ * Durations are counted in buckets that double in width: bucket {@code b}
+ * holds durations from 2<sup>b-1</sup> up to 2<sup>b</sup> - 1 nanoseconds.
+ * Recording is a handful of atomic additions and never allocates, and
+ * percentiles are accurate to within a factor of two, which is plenty to
+ * tell microseconds from milliseconds. Safe to use from several threads.
+ */
+public class LatencyHistogram {
+    private static final int BUCKET_COUNT = Long.SIZE;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds. Negative values count as 0.
+     */
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(duration));
+        count.increment();
+        totalNanos.add(duration);
+        maxNanos.accumulate(duration);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of every duration recorded.
+     *
+     * @return The total in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the mean duration.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getMeanNanos() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : totalNanos.sum() / recorded;
+    }
+
+    /**
+     * Returns the longest duration recorded.
+     *
+     * @return The maximum in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns an upper bound on the given percentile: the top of the bucket
+     * it falls in, or the maximum if that is lower.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The duration in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        assert percentile >= 0 && percentile <= 100 : "LatencyHistogram: percentile should be from 0 to 100";
+        long recorded = count.sum();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                long upperBound = bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+                return Math.min(upperBound, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+}
@@ -1,12 +1,78 @@
 package goldexperiencerequiem;
 
 /**
- * Represents a command to list all tasks in the task list.
+ * Represents a command to list the tasks in the task list, either all of them
+ * or one page at a time, in list order or sorted.
  */
 public class ListCommand extends Command {
+    /** Number of tasks on each page of {@code list <page>}. */
+    public static final int PAGE_SIZE = 100;
+
+    /** Indicates that a list command has no limit on the number of tasks. */
+    public static final int NO_LIMIT = -1;
+
+    private final int offset;
+    private final int limit;
+    private final SortOrder sortOrder;
+
+    /** Indicates that the slice is a page of {@code list <page>}. */
+    private final boolean isPaged;
+
+    /**
+     * Creates a list command that shows every task.
+     */
+    public ListCommand() {
+        this(0, NO_LIMIT);
+    }
+
+    /**
+     * Creates a list command that shows a slice of the task list.
+     *
+     * @param offset Number of tasks to skip from the start of the list.
+     * @param limit  Maximum number of tasks to show, or {@link #NO_LIMIT}.
+     */
+    public ListCommand(int offset, int limit) {
+        this(offset, limit, null);
+    }
+
+    /**
+     * Creates a list command that shows a slice of the task list in the given
+     * order. Tasks keep their numbers in the list.
+     *
+     * @param offset    Number of tasks to skip from the start of the sorted
+     *                  list.
+     * @param limit     Maximum number of tasks to show, or {@link #NO_LIMIT}.
+     * @param sortOrder The order to show the tasks in, or null for list order.
+     */
+    public ListCommand(int offset, int limit, SortOrder sortOrder) {
+        this(offset, limit, sortOrder, false);
+    }
+
+    private ListCommand(int offset, int limit, SortOrder sortOrder, boolean isPaged) {
+        assert offset >= 0 : "ListCommand: offset should not be negative";
+        assert limit > 0 || limit == NO_LIMIT : "ListCommand: limit should be positive";
+        this.offset = offset;
+        this.limit = limit;
+        this.sortOrder = sortOrder;
+        this.isPaged = isPaged;
+    }
+
+    /**
+     * Creates a list command that shows one page of {@value #PAGE_SIZE} tasks,
+     * in list order.
+     *
+     * @param page The page to show, from 1 up.
+     * @return The list command.
+     */
+    public static ListCommand ofPage(int page) {
+        assert page >= 1 : "ListCommand: page should be positive";
+        long offset = (long) (page - 1) * PAGE_SIZE;
+        return new ListCommand((int) Math.min(offset, Integer.MAX_VALUE), PAGE_SIZE, null, true);
+    }
+
     /**
      * Executes the list command.
-     * Iterates through the task list and displays each task to the user.
+     * Displays the requested tasks to the user.
      *
      * @param tasks   The TaskList to be displayed.
      * @param ui      The Ui object to interact with the user.
@@ -14,7 +80,20 @@ public class ListCommand extends Command {
      */
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) {
-        ui.showTaskList(tasks);
+        if (sortOrder != null) {
+            SortedView view = tasks.getSortedView(sortOrder);
+            if (offset == 0 && limit == NO_LIMIT) {
+                ui.showSortedTaskList(view, sortOrder);
+            } else {
+                ui.showSortedTaskList(view, sortOrder, offset, limit == NO_LIMIT ? view.size() : limit);
+            }
+        } else if (offset == 0 && limit == NO_LIMIT) {
+            ui.showTaskList(tasks);
+        } else if (isPaged) {
+            ui.showTaskPage(tasks, offset, limit);
+        } else {
+            ui.showTaskList(tasks, offset, limit == NO_LIMIT ? tasks.size() : limit);
+        }
     }
 
     @Override
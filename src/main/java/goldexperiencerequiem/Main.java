@@ -14,6 +14,7 @@ import javafx.stage.Stage;
 public class Main extends Application {
     private static final String DEFAULT_FILE_PATH = "requiem.txt";
     private Requiem requiem;
+    private MainWindow mainWindow;
 
     public Main(String filePath) {
         this.requiem = new Requiem(filePath);
@@ -33,10 +34,19 @@ public class Main extends Application {
             stage.setMinWidth(417);
             stage.setScene(scene);
             stage.setTitle("Detective Hart's Log");
-            fxmlLoader.<MainWindow>getController().setRequiem(requiem); // inject the Duke instance
+            mainWindow = fxmlLoader.getController();
+            mainWindow.setRequiem(requiem); // inject the Duke instance
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.shutdown();
+        }
+        requiem.close();
+    }
 }
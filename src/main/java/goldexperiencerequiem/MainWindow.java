@@ -1,13 +1,17 @@
 package goldexperiencerequiem;
 
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
-import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 
 /**
@@ -15,10 +19,13 @@ import javafx.util.Duration;
  */
 public class MainWindow {
 
+    private static final String ARCHIVE_DIRECTORY = "data";
+    private static final String ARCHIVE_FILE_NAME = "conversation-archive.txt";
+    private static final String COMMAND_THREAD_NAME = "requiem-command";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> conversationView;
     @FXML
     private TextField userInput;
     @FXML
@@ -26,6 +33,34 @@ public class MainWindow {
 
     private Requiem requiem;
 
+    /**
+     * Runs commands one at a time, in the order they were sent, so a slow
+     * command never holds up the JavaFX Application Thread.
+     */
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, COMMAND_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Indicates whether a bye command has run. Only used on the command thread.
+     */
+    private boolean hasExited = false;
+
+    /**
+     * Indicates whether the window is closing, so commands still queued are
+     * skipped instead of run.
+     */
+    private volatile boolean isShuttingDown = false;
+
+    /**
+     * The recent conversation shown in {@link #conversationView}. Older
+     * messages are archived to disk so the view's list stays bounded.
+     */
+    private final ConversationHistory history = new ConversationHistory(
+            Paths.get(ARCHIVE_DIRECTORY, ARCHIVE_FILE_NAME));
+
     private final Image userImage = new Image(getClass().getResourceAsStream("/images/DaUser.png"));
     private final Image requiemImage = new Image(getClass().getResourceAsStream("/images/DaDuke.png")); // rename file
                                                                                                         // later if you
@@ -33,7 +68,8 @@ public class MainWindow {
 
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        conversationView.setItems(history.getMessages());
+        conversationView.setCellFactory(view -> new DialogCell(userImage, requiemImage));
     }
 
     /** Injects the Requiem instance */
@@ -41,6 +77,28 @@ public class MainWindow {
         this.requiem = requiem;
     }
 
+    /**
+     * Waits for the command being run, if any, to finish and stops the command
+     * thread. Commands still queued are dropped. The running command is not
+     * interrupted, since an interrupt during a journal sync would close the
+     * journal before the last records reach the disk. Then waits for the
+     * conversation archive to be written.
+     */
+    public void shutdown() {
+        isShuttingDown = true;
+        commandExecutor.shutdown();
+        try {
+            commandExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        history.close();
+    }
+
+    /**
+     * Shows the user's input straight away with a pending reply, and queues
+     * the command to run on the command thread.
+     */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
@@ -49,16 +107,45 @@ public class MainWindow {
             return;
         }
 
+        ChatMessage message = ChatMessage.fromUser(input);
+        ChatMessage pending = ChatMessage.pending();
+        history.add(message, pending);
+        conversationView.scrollTo(history.getMessages().size() - 1);
+        userInput.clear();
+
+        commandExecutor.execute(() -> runCommand(input, message, pending));
+    }
+
+    /**
+     * Runs one command on the command thread and posts its response back to
+     * the JavaFX Application Thread, in place of the pending reply. Input
+     * sent after a bye command, before the input field was disabled, is
+     * taken back out of the conversation instead.
+     */
+    private void runCommand(String input, ChatMessage message, ChatMessage pending) {
+        if (isShuttingDown) {
+            return;
+        }
+        if (hasExited) {
+            Platform.runLater(() -> {
+                history.remove(pending);
+                history.remove(message);
+            });
+            return;
+        }
         String response = requiem.getResponse(input);
-        boolean isError = response.trim().startsWith("You ain't makin' sense");
+        boolean isExit = requiem.isExitCommand();
+        boolean isError = requiem.isLastCommandError();
+        hasExited = isExit;
 
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, requiemImage, isError));
+        Platform.runLater(() -> showResponse(pending, ChatMessage.fromRequiem(response, isError), isExit));
+    }
 
-        userInput.clear();
+    private void showResponse(ChatMessage pending, ChatMessage response, boolean isExit) {
+        history.replace(pending, response);
+        conversationView.scrollTo(history.getMessages().size() - 1);
 
-        if (requiem.isExitCommand()) {
+        if (isExit) {
             userInput.setDisable(true);
             sendButton.setDisable(true);
             PauseTransition delay = new PauseTransition(Duration.millis(800));
@@ -5,6 +5,7 @@ package goldexperiencerequiem;
  */
 public class MarkCommand extends Command {
     private final int index;
+    private final TaskSelection selection;
 
     /**
      * Creates a new MarkCommand with the given index.
@@ -13,6 +14,17 @@ public class MarkCommand extends Command {
      */
     public MarkCommand(int index) {
         this.index = index;
+        this.selection = null;
+    }
+
+    /**
+     * Creates a new MarkCommand that marks every selected task as done at once.
+     *
+     * @param selection The tasks to be marked as done.
+     */
+    public MarkCommand(TaskSelection selection) {
+        this.index = -1;
+        this.selection = selection;
     }
 
     @Override
@@ -20,14 +32,38 @@ public class MarkCommand extends Command {
         assert tasks != null : "MarkCommand: tasks should not be null";
         assert ui != null : "MarkCommand: ui should not be null";
         assert storage != null : "MarkCommand: storage should not be null";
+        if (selection != null) {
+            markAll(tasks, ui, storage);
+            return;
+        }
         assert index >= 0 : "MarkCommand: index should be non-negative (parser should enforce this)";
         if (index < 0 || index >= tasks.size()) {
             throw new RequiemException("Task index out of bounds.");
         }
-        Task task = tasks.getTask(index);
-        task.markAsDone();
-        storage.save(tasks.getAllTasks());
-        ui.showTaskMarked(task);
+        boolean wasDone = tasks.getTask(index).isDone;
+        tasks.setDone(index, true);
+        storage.recordMark(tasks.getAllTasks(), index);
+        tasks.getHistory().recordStatusChange(new int[] {index}, new boolean[] {wasDone}, true);
+        ui.showTaskMarked(tasks.getTask(index));
+    }
+
+    /**
+     * Marks every selected task and records them all in a single write.
+     */
+    private void markAll(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
+        int[] indices = selection.resolve(tasks);
+        boolean[] wasDone = new boolean[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            wasDone[i] = tasks.getTask(indices[i]).isDone;
+            tasks.setDone(indices[i], true);
+        }
+        storage.recordMarks(tasks.getAllTasks(), indices);
+        tasks.getHistory().recordStatusChange(indices, wasDone, true);
+        if (indices.length == 1) {
+            ui.showTaskMarked(tasks.getTask(indices[0]));
+        } else {
+            ui.showTasksMarked(indices.length);
+        }
     }
 
     @Override
@@ -0,0 +1,356 @@
+package goldexperiencerequiem;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts commands and times where they spend it, for the {@code stats}
+ * command and JMX.
+ * <p>
+ * Each kind of command gets a count and histograms of its parse, execute and
+ * storage times; execute time includes the storage time, which is what the
+ * command spent waiting on {@link Storage}. Writes storage does in the
+ * background are timed separately, along with the bytes they write. Every
+ * measurement is a couple of {@link System#nanoTime()} calls and atomic
+ * additions, so the metrics are always on. The summary also says how much
+ * the task list's {@link DescriptionPool} saves, once it is set.
+ */
+public class Metrics implements MetricsMXBean {
+
+    /** The JMX name the metrics are registered under. */
+    public static final String OBJECT_NAME = "goldexperiencerequiem:type=Metrics";
+
+    /** Name under which input that could not be parsed is counted. */
+    public static final String INVALID_COMMAND = "invalid";
+
+    private static final String COMMAND_SUFFIX = "Command";
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double P50 = 50;
+    private static final double P99 = 99;
+
+    private static final String SUMMARY_LOAD = " Loaded %d tasks in %s.";
+    private static final String SUMMARY_STORAGE = " Storage wrote %,d bytes in %d background writes (p50 %s, p99 %s, max %s).";
+    private static final String SUMMARY_HEADER = String.format(" %-8s %7s %6s  %-17s %-17s %s",
+            "command", "count", "errors", "parse p50/p99", "execute p50/p99", "storage p50/p99");
+    private static final String SUMMARY_ROW = " %-8s %7d %6d  %-17s %-17s %s";
+
+    /**
+     * The name each command class is counted under, worked out once per class.
+     */
+    private static final ClassValue<String> COMMAND_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getSimpleName();
+            if (name.endsWith(COMMAND_SUFFIX)) {
+                name = name.substring(0, name.length() - COMMAND_SUFFIX.length());
+            }
+            return name.toLowerCase(Locale.ROOT);
+        }
+    };
+
+    /**
+     * Counts and timings for one kind of command.
+     */
+    public static class CommandMetrics {
+        private final LongAdder errors = new LongAdder();
+        private final LatencyHistogram parse = new LatencyHistogram();
+        private final LatencyHistogram execute = new LatencyHistogram();
+        private final LatencyHistogram storage = new LatencyHistogram();
+
+        /**
+         * Returns how many times the command has run, or for invalid input,
+         * been rejected.
+         *
+         * @return The count.
+         */
+        public long getCount() {
+            return parse.getCount();
+        }
+
+        /**
+         * Returns how many times the command failed.
+         *
+         * @return The count.
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the times spent parsing the command.
+         *
+         * @return The histogram.
+         */
+        public LatencyHistogram getParse() {
+            return parse;
+        }
+
+        /**
+         * Returns the times spent executing the command, storage included.
+         *
+         * @return The histogram.
+         */
+        public LatencyHistogram getExecute() {
+            return execute;
+        }
+
+        /**
+         * Returns the times the command spent waiting on storage.
+         *
+         * @return The histogram.
+         */
+        public LatencyHistogram getStorage() {
+            return storage;
+        }
+    }
+
+    /** The metrics currently registered over JMX, if any. Guarded by the class lock. */
+    private static Metrics registered;
+
+    private final Map<String, CommandMetrics> commands = new ConcurrentHashMap<>();
+    private final LatencyHistogram storageWrites = new LatencyHistogram();
+    private final LongAdder bytesWritten = new LongAdder();
+    private volatile long loadNanos;
+    private volatile int loadedTaskCount;
+    private volatile DescriptionPool descriptionPool;
+
+    /**
+     * Sets the pool whose saving the summary and {@link #getDescriptionBytesSaved}
+     * report.
+     *
+     * @param descriptionPool The description pool of the task list.
+     */
+    public void setDescriptionPool(DescriptionPool descriptionPool) {
+        this.descriptionPool = descriptionPool;
+    }
+
+    /**
+     * Records how long loading the task list took at startup.
+     *
+     * @param nanos     The load time in nanoseconds.
+     * @param taskCount The number of tasks loaded.
+     */
+    public void recordLoad(long nanos, int taskCount) {
+        loadNanos = nanos;
+        loadedTaskCount = taskCount;
+    }
+
+    /**
+     * Records one command that was parsed and executed.
+     *
+     * @param command      The command.
+     * @param parseNanos   Time spent parsing it.
+     * @param executeNanos Time spent executing it, storage included.
+     * @param storageNanos Time it spent waiting on storage.
+     * @param isFailed     Whether it failed with an error.
+     */
+    public void recordCommand(Command command, long parseNanos, long executeNanos, long storageNanos,
+            boolean isFailed) {
+        CommandMetrics metrics = getOrCreate(COMMAND_NAMES.get(command.getClass()));
+        metrics.parse.record(parseNanos);
+        metrics.execute.record(executeNanos);
+        metrics.storage.record(storageNanos);
+        if (isFailed) {
+            metrics.errors.increment();
+        }
+    }
+
+    /**
+     * Records input that could not be parsed into a command.
+     *
+     * @param parseNanos Time spent trying to parse it.
+     */
+    public void recordInvalidCommand(long parseNanos) {
+        CommandMetrics metrics = getOrCreate(INVALID_COMMAND);
+        metrics.parse.record(parseNanos);
+        metrics.errors.increment();
+    }
+
+    /**
+     * Records one write storage did in the background.
+     *
+     * @param nanos Time the write took.
+     * @param bytes Number of bytes it wrote.
+     */
+    public void recordStorageWrite(long nanos, long bytes) {
+        storageWrites.record(nanos);
+        bytesWritten.add(bytes);
+    }
+
+    private CommandMetrics getOrCreate(String name) {
+        CommandMetrics metrics = commands.get(name);
+        return metrics != null ? metrics : commands.computeIfAbsent(name, key -> new CommandMetrics());
+    }
+
+    /**
+     * Returns the counts and timings of every kind of command seen so far.
+     *
+     * @return The metrics, keyed and sorted by command name.
+     */
+    public Map<String, CommandMetrics> getCommandMetrics() {
+        return new TreeMap<>(commands);
+    }
+
+    /**
+     * Returns the times of background storage writes.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getStorageWrites() {
+        return storageWrites;
+    }
+
+    @Override
+    public double getLoadTimeMillis() {
+        return loadNanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public int getLoadedTaskCount() {
+        return loadedTaskCount;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getStorageWriteCount() {
+        return storageWrites.getCount();
+    }
+
+    @Override
+    public double getStorageWriteP99Millis() {
+        return storageWrites.getPercentileNanos(P99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public long getDescriptionBytesSaved() {
+        DescriptionPool pool = descriptionPool;
+        return pool == null ? 0 : pool.getBytesSaved();
+    }
+
+    @Override
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        commands.forEach((name, metrics) -> counts.put(name, metrics.getCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getExecuteMeanMicros() {
+        return mapCommands(metrics -> metrics.execute.getMeanNanos() / NANOS_PER_MICRO);
+    }
+
+    @Override
+    public Map<String, Double> getExecuteP99Micros() {
+        return mapCommands(metrics -> metrics.execute.getPercentileNanos(P99) / NANOS_PER_MICRO);
+    }
+
+    private Map<String, Double> mapCommands(ToDoubleFunction<CommandMetrics> value) {
+        Map<String, Double> values = new TreeMap<>();
+        commands.forEach((name, metrics) -> values.put(name, value.applyAsDouble(metrics)));
+        return values;
+    }
+
+    @Override
+    public List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(SUMMARY_LOAD, loadedTaskCount, formatNanos(loadNanos)));
+        lines.add(String.format(SUMMARY_STORAGE, bytesWritten.sum(), storageWrites.getCount(),
+                formatNanos(storageWrites.getPercentileNanos(P50)),
+                formatNanos(storageWrites.getPercentileNanos(P99)),
+                formatNanos(storageWrites.getMaxNanos())));
+        DescriptionPool pool = descriptionPool;
+        if (pool != null) {
+            lines.add(pool.getSummary());
+        }
+        lines.add(SUMMARY_HEADER);
+        getCommandMetrics().forEach((name, metrics) -> lines.add(String.format(SUMMARY_ROW, name,
+                metrics.getCount(), metrics.getErrors(), formatPercentiles(metrics.parse),
+                formatPercentiles(metrics.execute), formatPercentiles(metrics.storage))));
+        return lines;
+    }
+
+    private static String formatPercentiles(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return formatNanos(histogram.getPercentileNanos(P50)) + "/" + formatNanos(histogram.getPercentileNanos(P99));
+    }
+
+    /**
+     * Formats a duration with a unit that keeps it short, e.g. 850ns, 12.3us,
+     * 4.5ms or 1.2s.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The formatted duration.
+     */
+    static String formatNanos(long nanos) {
+        if (nanos < NANOS_PER_MICRO) {
+            return nanos + "ns";
+        } else if (nanos < NANOS_PER_MILLI) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / NANOS_PER_MICRO);
+        } else if (nanos < NANOS_PER_MILLI * 1000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / NANOS_PER_MILLI);
+        }
+        return String.format(Locale.ROOT, "%.1fs", nanos / (NANOS_PER_MILLI * 1000));
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under
+     * {@link #OBJECT_NAME}, replacing any metrics registered before.
+     * <p>
+     * The first registration in a JVM starts the platform MBean server, which
+     * takes a few hundred milliseconds.
+     */
+    public void registerMBean() {
+        synchronized (Metrics.class) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(this, name);
+                registered = this;
+            } catch (JMException e) {
+                // JMX is optional; the stats command still works without it
+            }
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, unless other
+     * metrics have been registered in their place since.
+     */
+    public void unregisterMBean() {
+        synchronized (Metrics.class) {
+            if (registered != this) {
+                return;
+            }
+            registered = null;
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+            } catch (InstanceNotFoundException e) {
+                // Already removed by someone else
+            } catch (JMException e) {
+                // JMX is optional
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package goldexperiencerequiem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link Metrics} exposed over JMX, e.g. to JConsole or VisualVM, under
+ * the name {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns how long the task list took to load at startup.
+     *
+     * @return The load time in milliseconds.
+     */
+    double getLoadTimeMillis();
+
+    /**
+     * Returns the number of tasks loaded at startup.
+     *
+     * @return The task count.
+     */
+    int getLoadedTaskCount();
+
+    /**
+     * Returns the number of bytes storage has written since startup.
+     *
+     * @return The byte count.
+     */
+    long getBytesWritten();
+
+    /**
+     * Returns the number of background storage writes since startup.
+     *
+     * @return The write count.
+     */
+    long getStorageWriteCount();
+
+    /**
+     * Returns the 99th percentile of background storage write times.
+     *
+     * @return The time in milliseconds.
+     */
+    double getStorageWriteP99Millis();
+
+    /**
+     * Returns the estimated heap the tasks in the list save by sharing
+     * repeated descriptions.
+     *
+     * @return The saving in bytes.
+     */
+    long getDescriptionBytesSaved();
+
+    /**
+     * Returns how many times each kind of command has run.
+     *
+     * @return The counts, keyed by command name.
+     */
+    Map<String, Long> getCommandCounts();
+
+    /**
+     * Returns the mean execute time of each kind of command.
+     *
+     * @return The times in microseconds, keyed by command name.
+     */
+    Map<String, Double> getExecuteMeanMicros();
+
+    /**
+     * Returns the 99th percentile execute time of each kind of command.
+     *
+     * @return The times in microseconds, keyed by command name.
+     */
+    Map<String, Double> getExecuteP99Micros();
+
+    /**
+     * Returns the same summary as the {@code stats} command, one line per
+     * element.
+     *
+     * @return The summary lines.
+     */
+    List<String> getSummary();
+}
@@ -0,0 +1,86 @@
+package goldexperiencerequiem;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of task ordinals kept in ascending order, the posting list
+ * of the {@link TaskList} indexes.
+ * <p>
+ * It costs eight bytes per ordinal, starts with room for one and doubles when
+ * full. Tasks are mostly added at the end of the list, so adding usually
+ * appends without searching.
+ */
+final class OrdinalList {
+    private static final int INITIAL_CAPACITY = 1;
+
+    private long[] ordinals = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds an ordinal if it is not in the list yet.
+     *
+     * @param ordinal The ordinal to add.
+     */
+    void add(long ordinal) {
+        int index = size == 0 || ordinals[size - 1] < ordinal
+                ? size
+                : Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            index = -index - 1;
+        } else if (index < size) {
+            return;
+        }
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+        }
+        System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+        ordinals[index] = ordinal;
+        size++;
+    }
+
+    /**
+     * Removes an ordinal if it is in the list.
+     *
+     * @param ordinal The ordinal to remove.
+     */
+    void remove(long ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        size--;
+    }
+
+    long get(int index) {
+        assert index < size : "OrdinalList: index should be within the list";
+        return ordinals[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies the ordinals into an array, in ascending order.
+     *
+     * @param destination The array to copy into.
+     * @param offset      Where in the array to put the first ordinal.
+     */
+    void copyTo(long[] destination, int offset) {
+        System.arraycopy(ordinals, 0, destination, offset, size);
+    }
+
+    /**
+     * Returns the ordinals in a new array, in ascending order.
+     *
+     * @return A copy of the ordinals.
+     */
+    long[] toArray() {
+        return Arrays.copyOf(ordinals, size);
+    }
+}
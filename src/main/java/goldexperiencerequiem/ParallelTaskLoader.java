@@ -0,0 +1,154 @@
+package goldexperiencerequiem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a text data file by parsing line-aligned chunks of it in parallel.
+ * <p>
+ * The file is split into chunks that each end on a line break. Every chunk is
+ * memory-mapped and parsed on the common fork-join pool, and the results are
+ * joined back together in file order.
+ */
+public class ParallelTaskLoader {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 24;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SCAN_BUFFER_SIZE = 1 << 13;
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private ParallelTaskLoader() {
+    }
+
+    /**
+     * Parses every line of the file into a task. Blank lines are ignored, and
+     * lines the parser rejects by returning null are skipped.
+     *
+     * @param path       The text data file.
+     * @param taskParser Turns one line into a task, or null if it is corrupted.
+     * @return The parsed tasks, in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    public static ArrayList<Task> load(Path path, Function<String, Task> taskParser) throws IOException {
+        return load(path, taskParser, -1);
+    }
+
+    /**
+     * Parses every line of the file, splitting it into chunks of roughly the
+     * given size.
+     *
+     * @param path       The text data file.
+     * @param taskParser Turns one line into a task, or null if it is corrupted.
+     * @param chunkSize  Target chunk size in bytes, or -1 to pick one from the
+     *                   file size and the number of cores.
+     * @return The parsed tasks, in file order.
+     * @throws IOException If the file cannot be read.
+     */
+    static ArrayList<Task> load(Path path, Function<String, Task> taskParser, long chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (chunkSize <= 0) {
+                int parallelism = ForkJoinPool.getCommonPoolParallelism();
+                chunkSize = Math.min(MAX_CHUNK_SIZE,
+                        Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD)));
+            }
+            List<long[]> chunks = splitIntoChunks(channel, size, chunkSize);
+
+            List<ArrayList<Task>> parsedChunks;
+            try {
+                parsedChunks = chunks.parallelStream()
+                        .map(chunk -> parseChunk(channel, chunk[0], chunk[1], taskParser))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            ArrayList<Task> tasks = new ArrayList<>(parsedChunks.stream().mapToInt(ArrayList::size).sum());
+            for (ArrayList<Task> parsedChunk : parsedChunks) {
+                tasks.addAll(parsedChunk);
+            }
+            return tasks;
+        }
+    }
+
+    /**
+     * Splits the file into [start, end) ranges of about the given size, moving
+     * each boundary forward to just past the next line break.
+     */
+    private static List<long[]> splitIntoChunks(FileChannel channel, long size, long chunkSize) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size, scanBuffer);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer scanBuffer)
+            throws IOException {
+        while (position < size) {
+            scanBuffer.clear();
+            int read = channel.read(scanBuffer, position);
+            if (read <= 0) {
+                return size;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scanBuffer.get(i) == LINE_FEED) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ArrayList<Task> parseChunk(FileChannel channel, long start, long end,
+            Function<String, Task> taskParser) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        byte[] bytes = new byte[(int) (end - start)];
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            mapped.get(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int lineStart = 0;
+        for (int i = 0; i <= bytes.length; i++) {
+            if (i < bytes.length && bytes[i] != LINE_FEED) {
+                continue;
+            }
+            int lineEnd = i;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == CARRIAGE_RETURN) {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                String line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                if (!line.trim().isEmpty()) {
+                    Task task = taskParser.apply(line);
+                    if (task != null) {
+                        tasks.add(task);
+                    }
+                }
+            }
+            lineStart = i + 1;
+        }
+        return tasks;
+    }
+}
@@ -1,7 +1,8 @@
 package goldexperiencerequiem;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 
 /**
  * Makes sense of user commands.
@@ -17,137 +18,568 @@ public class Parser {
     private static final String DEADLINE_COMMAND = "DEADLINE";
     private static final String EVENT_COMMAND = "EVENT";
 
+    private static final String DUE_COMMAND = "DUE";
+    private static final String BETWEEN_COMMAND = "BETWEEN";
     private static final String HELP_COMMAND = "HELP";
+    private static final String FIND_COMMAND = "FIND";
+    private static final String STATS_COMMAND = "STATS";
+    private static final String UNDO_COMMAND = "UNDO";
+    private static final String REDO_COMMAND = "REDO";
+    private static final String SORT_COMMAND = "SORT";
 
     private static final String DEADLINE_DELIMITER = "/by";
     private static final String EVENT_FROM_DELIMITER = "/from";
     private static final String EVENT_TO_DELIMITER = "/to";
 
+    private static final String WHERE_KEYWORD = "where";
+    private static final String WHERE_FIND_KEYWORD = "find";
+
+    private static final String LIMIT_OPTION = "--limit";
+    private static final String OFFSET_OPTION = "--offset";
+    private static final String SORT_OPTION = "--sort";
+
+    private static final String SORT_BY_KEYWORD = "by";
+
     private static final int DEADLINE_DELIMITER_LENGTH = 3; // "/by".length()
     private static final int EVENT_FROM_DELIMITER_LENGTH = 5; // "/from".length()
     private static final int EVENT_TO_DELIMITER_LENGTH = 3; // "/to".length()
 
     private static final String ERROR_UNKNOWN_COMMAND = "I'm sorry, but I don't know what that means :-(";
     private static final String ERROR_SPECIFY_INDEX = "You need to specify a task index.";
-    private static final String ERROR_INVALID_INDEX = "The task index must be a number.";
+    private static final String ERROR_INVALID_INDEX = "The task index must be a number from 1 up.";
+    private static final String ERROR_INVALID_INDEX_LIST =
+            "Use task numbers and ranges of them from 1 up, e.g. 3,7,9-20.";
+    private static final String ERROR_INVALID_WHERE = "Use where find <keyword>, e.g. mark where find report.";
     private static final String ERROR_EMPTY_TODO = "The description of a todo cannot be empty.";
     private static final String ERROR_EMPTY_DEADLINE = "The description of a deadline cannot be empty.";
     private static final String ERROR_MISSING_BY = "The deadline must have a /by time.";
     private static final String ERROR_EMPTY_EVENT = "The description of an event cannot be empty.";
     private static final String ERROR_MISSING_FROM_TO = "The event must have /from and /to times.";
     private static final String ERROR_INVALID_DATE = "Invalid date format. Please use yyyy-MM-dd (e.g., 2019-12-02).";
+    private static final String ERROR_SPECIFY_DATE = "You need to specify a date.";
+    private static final String ERROR_SPECIFY_DATE_RANGE = "You need to specify a start date and an end date.";
+    private static final String ERROR_INVALID_PAGE = "The page must be a positive number.";
+    private static final String ERROR_INVALID_LIST_OPTIONS =
+            "Use list <page>, or list --limit <count> --offset <count> with a limit of 1 or more.";
+    private static final String ERROR_INVALID_SORT = "Sort by date, status, type or name, e.g. sort by date.";
     private static final String ERROR_EVENT_DATE_ORDER = "Time doesn't flow backwards, Rust. Check your dates.";
 
+    /**
+     * Command keywords grouped by length, so a command word is only compared
+     * against the few keywords it could possibly be.
+     */
+    private static final CommandType[][] COMMANDS_BY_LENGTH = buildDispatchTable();
+
+    private static final char COMMAND_SEPARATOR = ' ';
+    private static final char INDEX_SEPARATOR = ',';
+    private static final char RANGE_SEPARATOR = '-';
+    private static final int ISO_DATE_LENGTH = 10;
+    private static final int NON_ASCII_START = 0x80;
+
+    /**
+     * The commands the parser understands, each with its keyword in upper case.
+     */
+    private enum CommandType {
+        BYE(BYE_COMMAND),
+        LIST(LIST_COMMAND),
+        MARK(MARK_COMMAND),
+        UNMARK(UNMARK_COMMAND),
+        DELETE(DELETE_COMMAND),
+        TODO(TODO_COMMAND),
+        DEADLINE(DEADLINE_COMMAND),
+        EVENT(EVENT_COMMAND),
+        FIND(FIND_COMMAND),
+        DUE(DUE_COMMAND),
+        BETWEEN(BETWEEN_COMMAND),
+        STATS(STATS_COMMAND),
+        UNDO(UNDO_COMMAND),
+        REDO(REDO_COMMAND),
+        SORT(SORT_COMMAND),
+        HELP(HELP_COMMAND);
+
+        private final String keyword;
+
+        CommandType(String keyword) {
+            this.keyword = keyword;
+        }
+    }
+
+    private static CommandType[][] buildDispatchTable() {
+        int maxLength = 0;
+        for (CommandType type : CommandType.values()) {
+            maxLength = Math.max(maxLength, type.keyword.length());
+        }
+        CommandType[][] table = new CommandType[maxLength + 1][0];
+        for (CommandType type : CommandType.values()) {
+            CommandType[] sameLength = table[type.keyword.length()];
+            sameLength = Arrays.copyOf(sameLength, sameLength.length + 1);
+            sameLength[sameLength.length - 1] = type;
+            table[type.keyword.length()] = sameLength;
+        }
+        return table;
+    }
+
     /**
      * Parses the user input into a Command object.
+     * <p>
+     * The input is scanned in place: the command word is the text before the
+     * first space, and the arguments are everything after it. Only the strings
+     * that end up in the command, such as a task description, are copied.
      *
      * @param fullCommand The raw input string from the user.
      * @return The corresponding Command object.
      * @throws RequiemException If the command is invalid or missing information.
      */
     public static Command parse(String fullCommand) throws RequiemException {
-        String[] words = fullCommand.split(" ", 2);
-        String commandWord = words[0].toUpperCase();
+        int separator = fullCommand.indexOf(COMMAND_SEPARATOR);
+        int wordEnd = separator == -1 ? fullCommand.length() : separator;
+        // -1 when there are no arguments at all, as opposed to empty ones
+        int argsStart = separator == -1 ? -1 : separator + 1;
 
-        switch (commandWord) {
-            case BYE_COMMAND:
+        CommandType type = findCommandType(fullCommand, wordEnd);
+        if (type == null) {
+            throw new RequiemException(ERROR_UNKNOWN_COMMAND);
+        }
+        switch (type) {
+            case BYE:
                 return new ExitCommand();
-            case LIST_COMMAND:
-                return new ListCommand();
-            case MARK_COMMAND:
-                return new MarkCommand(parseIndex(words));
-            case UNMARK_COMMAND:
-                return new UnmarkCommand(parseIndex(words));
-            case DELETE_COMMAND:
-                return new DeleteCommand(parseIndex(words));
-            case TODO_COMMAND:
-                return parseTodo(words);
-            case DEADLINE_COMMAND:
-                return parseDeadline(words);
-            case EVENT_COMMAND:
-                return parseEvent(words);
-            case "FIND":
-                return parseFind(words);
-            case HELP_COMMAND:
+            case LIST:
+                return parseList(fullCommand, argsStart);
+            case MARK:
+                return isSelection(fullCommand, argsStart)
+                        ? new MarkCommand(parseSelection(fullCommand, argsStart))
+                        : new MarkCommand(parseIndex(fullCommand, argsStart));
+            case UNMARK:
+                return isSelection(fullCommand, argsStart)
+                        ? new UnmarkCommand(parseSelection(fullCommand, argsStart))
+                        : new UnmarkCommand(parseIndex(fullCommand, argsStart));
+            case DELETE:
+                return isSelection(fullCommand, argsStart)
+                        ? new DeleteCommand(parseSelection(fullCommand, argsStart))
+                        : new DeleteCommand(parseIndex(fullCommand, argsStart));
+            case TODO:
+                return parseTodo(fullCommand, argsStart);
+            case DEADLINE:
+                return parseDeadline(fullCommand, argsStart);
+            case EVENT:
+                return parseEvent(fullCommand, argsStart);
+            case FIND:
+                return parseFind(fullCommand, argsStart);
+            case DUE:
+                return parseDue(fullCommand, argsStart);
+            case BETWEEN:
+                return parseBetween(fullCommand, argsStart);
+            case STATS:
+                return new StatsCommand();
+            case UNDO:
+                return new UndoCommand();
+            case REDO:
+                return new RedoCommand();
+            case SORT:
+                return parseSort(fullCommand, argsStart);
+            case HELP:
                 return new HelpCommand();
             default:
                 throw new RequiemException(ERROR_UNKNOWN_COMMAND);
         }
     }
 
-    private static int parseIndex(String[] words) throws RequiemException {
-        if (words.length < 2) {
+    /**
+     * Matches the first {@code wordEnd} characters of the input against the
+     * command keywords, ignoring case.
+     *
+     * @return The matching command, or null if there is none.
+     */
+    private static CommandType findCommandType(String input, int wordEnd) {
+        for (int i = 0; i < wordEnd; i++) {
+            if (input.charAt(i) >= NON_ASCII_START) {
+                return findNonAsciiCommandType(input.substring(0, wordEnd));
+            }
+        }
+        if (wordEnd >= COMMANDS_BY_LENGTH.length) {
+            return null;
+        }
+        for (CommandType type : COMMANDS_BY_LENGTH[wordEnd]) {
+            if (input.regionMatches(true, 0, type.keyword, 0, wordEnd)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Handles the rare command word with non-ASCII characters, whose upper-case
+     * form may differ in length or in how single characters compare, by
+     * upper-casing it in full.
+     */
+    private static CommandType findNonAsciiCommandType(String commandWord) {
+        String upperCaseWord = commandWord.toUpperCase();
+        for (CommandType type : CommandType.values()) {
+            if (type.keyword.equals(upperCaseWord)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the optional arguments of a list command: nothing, a page
+     * number, or any of {@code --limit}, {@code --offset} and {@code --sort}
+     * in any order.
+     */
+    private static Command parseList(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
+            return new ListCommand();
+        }
+        String[] args = trimmed(input, argsStart, input.length()).split("\\s+");
+        if (args.length == 1) {
+            int page = parseCount(args[0], ERROR_INVALID_PAGE);
+            if (page < 1) {
+                throw new RequiemException(ERROR_INVALID_PAGE);
+            }
+            return ListCommand.ofPage(page);
+        }
+
+        if (args.length % 2 != 0 || args.length > 6) {
+            throw new RequiemException(ERROR_INVALID_LIST_OPTIONS);
+        }
+        Integer limit = null;
+        Integer offset = null;
+        SortOrder sortOrder = null;
+        for (int i = 0; i < args.length; i += 2) {
+            if (SORT_OPTION.equalsIgnoreCase(args[i]) && sortOrder == null) {
+                sortOrder = parseSortOrder(args[i + 1]);
+                continue;
+            }
+            int count = parseCount(args[i + 1], ERROR_INVALID_LIST_OPTIONS);
+            if (LIMIT_OPTION.equalsIgnoreCase(args[i]) && limit == null && count > 0) {
+                limit = count;
+            } else if (OFFSET_OPTION.equalsIgnoreCase(args[i]) && offset == null) {
+                offset = count;
+            } else {
+                throw new RequiemException(ERROR_INVALID_LIST_OPTIONS);
+            }
+        }
+        return new ListCommand(offset == null ? 0 : offset, limit == null ? ListCommand.NO_LIMIT : limit,
+                sortOrder);
+    }
+
+    /**
+     * Parses a sort command: {@code sort} followed by an order, optionally
+     * after the word {@code by}.
+     */
+    private static Command parseSort(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
+            throw new RequiemException(ERROR_INVALID_SORT);
+        }
+        int start = skipBlank(input, argsStart, input.length());
+        int end = trimEnd(input, start, input.length());
+        if (startsWithWord(input, start, end, SORT_BY_KEYWORD)) {
+            start = skipBlank(input, start + SORT_BY_KEYWORD.length(), end);
+        }
+        return new ListCommand(0, ListCommand.NO_LIMIT, parseSortOrder(input.substring(start, end)));
+    }
+
+    private static SortOrder parseSortOrder(String name) throws RequiemException {
+        SortOrder sortOrder = SortOrder.fromName(name);
+        if (sortOrder == null) {
+            throw new RequiemException(ERROR_INVALID_SORT);
+        }
+        return sortOrder;
+    }
+
+    private static int parseCount(String text, String error) throws RequiemException {
+        try {
+            int count = Integer.parseInt(text);
+            if (count < 0) {
+                throw new RequiemException(error);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new RequiemException(error);
+        }
+    }
+
+    private static int parseIndex(String input, int argsStart) throws RequiemException {
+        if (argsStart == -1) {
             throw new RequiemException(ERROR_SPECIFY_INDEX);
-        }   
+        }
         try {
-            return Integer.parseInt(words[1]) - 1;
+            int number = Integer.parseInt(input, argsStart, input.length(), 10);
+            if (number < 1) {
+                throw new RequiemException(ERROR_INVALID_INDEX);
+            }
+            return number - 1;
         } catch (NumberFormatException e) {
             throw new RequiemException(ERROR_INVALID_INDEX);
         }
     }
 
-    private static Command parseTodo(String[] words) throws RequiemException {
-        if (words.length < 2 || words[1].trim().isEmpty()) {
+    /**
+     * Returns whether the arguments of a mark, unmark or delete command pick
+     * out several tasks, rather than a single task number. A leading minus
+     * sign is taken as part of a single, negative number.
+     */
+    private static boolean isSelection(String input, int argsStart) {
+        if (argsStart == -1) {
+            return false;
+        }
+        int first = argsStart < input.length() && input.charAt(argsStart) == RANGE_SEPARATOR
+                ? argsStart + 1
+                : argsStart;
+        for (int i = first; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == INDEX_SEPARATOR || c == RANGE_SEPARATOR) {
+                return true;
+            }
+        }
+        int start = skipBlank(input, argsStart, input.length());
+        return startsWithWord(input, start, input.length(), WHERE_KEYWORD);
+    }
+
+    /**
+     * Parses the tasks a bulk command applies to: either {@code where find}
+     * followed by a search query, or a comma-separated list of task numbers
+     * and ranges of them, such as {@code 3,7,9-20}.
+     */
+    private static TaskSelection parseSelection(String input, int argsStart) throws RequiemException {
+        int start = skipBlank(input, argsStart, input.length());
+        int end = trimEnd(input, start, input.length());
+        if (startsWithWord(input, start, end, WHERE_KEYWORD)) {
+            int findStart = skipBlank(input, start + WHERE_KEYWORD.length(), end);
+            int queryStart = findStart + WHERE_FIND_KEYWORD.length();
+            if (!startsWithWord(input, findStart, end, WHERE_FIND_KEYWORD) || isBlank(input, queryStart, end)) {
+                throw new RequiemException(ERROR_INVALID_WHERE);
+            }
+            return TaskSelection.matching(trimmed(input, queryStart, end));
+        }
+
+        int count = 1;
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == INDEX_SEPARATOR) {
+                count++;
+            }
+        }
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int partStart = start;
+        for (int i = 0; i < count; i++) {
+            int partEnd = input.indexOf(INDEX_SEPARATOR, partStart);
+            if (partEnd == -1) {
+                partEnd = end;
+            }
+            int dash = input.indexOf(RANGE_SEPARATOR, partStart);
+            if (dash == -1 || dash > partEnd) {
+                starts[i] = parseTaskNumber(input, partStart, partEnd);
+                ends[i] = starts[i];
+            } else {
+                starts[i] = parseTaskNumber(input, partStart, dash);
+                ends[i] = parseTaskNumber(input, dash + 1, partEnd);
+                if (ends[i] < starts[i]) {
+                    throw new RequiemException(ERROR_INVALID_INDEX_LIST);
+                }
+            }
+            partStart = partEnd + 1;
+        }
+        return TaskSelection.ofRanges(starts, ends);
+    }
+
+    /**
+     * Parses one task number of a list, ignoring surrounding whitespace.
+     *
+     * @return The zero-based index of the task.
+     */
+    private static int parseTaskNumber(String input, int start, int end) throws RequiemException {
+        start = skipBlank(input, start, end);
+        try {
+            int number = Integer.parseInt(input, start, trimEnd(input, start, end), 10);
+            if (number < 1) {
+                throw new RequiemException(ERROR_INVALID_INDEX_LIST);
+            }
+            return number - 1;
+        } catch (NumberFormatException e) {
+            throw new RequiemException(ERROR_INVALID_INDEX_LIST);
+        }
+    }
+
+    /**
+     * Returns whether the range starts with the given word, ignoring case,
+     * followed by whitespace or the end of the range.
+     */
+    private static boolean startsWithWord(String input, int start, int end, String word) {
+        int wordEnd = start + word.length();
+        return wordEnd <= end && input.regionMatches(true, start, word, 0, word.length())
+                && (wordEnd == end || isWhitespace(input.charAt(wordEnd)));
+    }
+
+    private static Command parseTodo(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
             throw new RequiemException(ERROR_EMPTY_TODO);
         }
-        return new AddCommand(new Todo(words[1].trim()));
+        return new AddCommand(new Todo(trimmed(input, argsStart, input.length())));
     }
 
-    private static Command parseDeadline(String[] words) throws RequiemException {
-        if (words.length < 2 || words[1].trim().isEmpty()) {
+    private static Command parseDeadline(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
             throw new RequiemException(ERROR_EMPTY_DEADLINE);
         }
-        String args = words[1];
-        int byIndex = args.indexOf(DEADLINE_DELIMITER);
+        int byIndex = input.indexOf(DEADLINE_DELIMITER, argsStart);
         if (byIndex == -1) {
             throw new RequiemException(ERROR_MISSING_BY);
         }
-        String description = args.substring(0, byIndex).trim();
-        if (description.isEmpty()) {
+        if (isBlank(input, argsStart, byIndex)) {
             throw new RequiemException(ERROR_EMPTY_DEADLINE);
         }
-        String by = args.substring(byIndex + DEADLINE_DELIMITER_LENGTH).trim();
-        try {
-            LocalDate date = LocalDate.parse(by);
-            return new AddCommand(new Deadline(description, date));
-        } catch (DateTimeParseException e) {
-            throw new RequiemException(ERROR_INVALID_DATE);
-        }
+        String description = trimmed(input, argsStart, byIndex);
+        LocalDate date = parseTrimmedDate(input, byIndex + DEADLINE_DELIMITER_LENGTH, input.length());
+        return new AddCommand(new Deadline(description, date));
     }
 
-    private static Command parseEvent(String[] words) throws RequiemException {
-        if (words.length < 2 || words[1].trim().isEmpty()) {
+    private static Command parseEvent(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
             throw new RequiemException(ERROR_EMPTY_EVENT);
         }
-        String args = words[1];
-        int fromIndex = args.indexOf(EVENT_FROM_DELIMITER);
-        int toIndex = args.indexOf(EVENT_TO_DELIMITER);
+        int fromIndex = input.indexOf(EVENT_FROM_DELIMITER, argsStart);
+        int toIndex = input.indexOf(EVENT_TO_DELIMITER, argsStart);
         if (fromIndex == -1 || toIndex == -1) {
             throw new RequiemException(ERROR_MISSING_FROM_TO);
         }
-        String description = args.substring(0, fromIndex).trim();
-        if (description.isEmpty()) {
+        if (isBlank(input, argsStart, fromIndex)) {
             throw new RequiemException(ERROR_EMPTY_EVENT);
         }
-        String from = args.substring(fromIndex + EVENT_FROM_DELIMITER_LENGTH, toIndex).trim();
-        String to = args.substring(toIndex + EVENT_TO_DELIMITER_LENGTH).trim();
+        int fromStart = fromIndex + EVENT_FROM_DELIMITER_LENGTH;
+        if (toIndex < fromStart) {
+            throw new RequiemException(ERROR_MISSING_FROM_TO);
+        }
+        String description = trimmed(input, argsStart, fromIndex);
+        LocalDate fromDate = parseTrimmedDate(input, fromStart, toIndex);
+        LocalDate toDate = parseTrimmedDate(input, toIndex + EVENT_TO_DELIMITER_LENGTH, input.length());
+        if (fromDate.isAfter(toDate)) {
+            throw new RequiemException(ERROR_EVENT_DATE_ORDER);
+        }
+        return new AddCommand(new Event(description, fromDate, toDate));
+    }
+
+    private static Command parseFind(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
+            throw new RequiemException("You need to specify a keyword to find.");
+        }
+        return new FindCommand(trimmed(input, argsStart, input.length()));
+    }
+
+    private static Command parseDue(String input, int argsStart) throws RequiemException {
+        if (isBlank(input, argsStart, input.length())) {
+            throw new RequiemException(ERROR_SPECIFY_DATE);
+        }
+        return new DueCommand(parseTrimmedDate(input, argsStart, input.length()));
+    }
+
+    private static Command parseBetween(String input, int argsStart) throws RequiemException {
+        if (argsStart == -1) {
+            throw new RequiemException(ERROR_SPECIFY_DATE_RANGE);
+        }
+        int start = skipBlank(input, argsStart, input.length());
+        int end = trimEnd(input, start, input.length());
+
+        // Exactly two dates separated by whitespace
+        int firstEnd = start;
+        while (firstEnd < end && !isWhitespace(input.charAt(firstEnd))) {
+            firstEnd++;
+        }
+        int secondStart = firstEnd;
+        while (secondStart < end && isWhitespace(input.charAt(secondStart))) {
+            secondStart++;
+        }
+        int secondEnd = secondStart;
+        while (secondEnd < end && !isWhitespace(input.charAt(secondEnd))) {
+            secondEnd++;
+        }
+        if (secondStart == firstEnd || secondEnd != end) {
+            throw new RequiemException(ERROR_SPECIFY_DATE_RANGE);
+        }
+
+        LocalDate fromDate = parseDate(input, start, firstEnd);
+        LocalDate toDate = parseDate(input, secondStart, secondEnd);
+        if (fromDate.isAfter(toDate)) {
+            throw new RequiemException(ERROR_EVENT_DATE_ORDER);
+        }
+        return new BetweenCommand(fromDate, toDate);
+    }
+
+    private static LocalDate parseTrimmedDate(String input, int start, int end) throws RequiemException {
+        start = skipBlank(input, start, end);
+        return parseDate(input, start, trimEnd(input, start, end));
+    }
+
+    /**
+     * Parses the range as an ISO date. The common yyyy-MM-dd form is read
+     * digit by digit; anything else goes through {@link LocalDate#parse}.
+     */
+    private static LocalDate parseDate(String input, int start, int end) throws RequiemException {
         try {
-            LocalDate fromDate = LocalDate.parse(from);
-            LocalDate toDate = LocalDate.parse(to);
-            if (fromDate.isAfter(toDate)) {
-                throw new RequiemException(ERROR_EVENT_DATE_ORDER);
+            if (end - start == ISO_DATE_LENGTH && input.charAt(start + 4) == '-' && input.charAt(start + 7) == '-') {
+                int year = readDigits(input, start, start + 4);
+                int month = readDigits(input, start + 5, start + 7);
+                int day = readDigits(input, start + 8, end);
+                if (year >= 0 && month >= 0 && day >= 0) {
+                    return LocalDate.of(year, month, day);
+                }
             }
-            return new AddCommand(new Event(description, fromDate, toDate));
-        } catch (DateTimeParseException e) {
+            return LocalDate.parse(input.substring(start, end));
+        } catch (DateTimeException e) {
             throw new RequiemException(ERROR_INVALID_DATE);
         }
     }
 
-    private static Command parseFind(String[] words) throws RequiemException {
-        if (words.length < 2 || words[1].trim().isEmpty()) {
-            throw new RequiemException("You need to specify a keyword to find.");
+    /**
+     * Reads a run of ASCII digits as a number.
+     *
+     * @return The number, or -1 if the range holds anything but digits.
+     */
+    private static int readDigits(String input, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Returns whether the range is missing or holds nothing but characters
+     * that {@link String#trim()} would remove.
+     */
+    private static boolean isBlank(String input, int start, int end) {
+        return start == -1 || skipBlank(input, start, end) == end;
+    }
+
+    private static String trimmed(String input, int start, int end) {
+        start = skipBlank(input, start, end);
+        return input.substring(start, trimEnd(input, start, end));
+    }
+
+    private static int skipBlank(String input, int start, int end) {
+        while (start < end && input.charAt(start) <= COMMAND_SEPARATOR) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String input, int start, int end) {
+        while (end > start && input.charAt(end - 1) <= COMMAND_SEPARATOR) {
+            end--;
         }
-        return new FindCommand(words[1].trim());
+        return end;
+    }
+
+    /**
+     * Matches the characters of the regular expression class {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
 // INDENT FIX
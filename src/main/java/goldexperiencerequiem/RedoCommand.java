@@ -0,0 +1,32 @@
+package goldexperiencerequiem;
+
+/**
+ * Represents a command to replay the most recently undone change.
+ */
+public class RedoCommand extends Command {
+    private static final String ERROR_NOTHING_TO_REDO = "Nothing to put back, Rust.";
+
+    /**
+     * Executes the redo command.
+     * Replays the latest undone change, as long as nothing else has changed
+     * since, persists it, and tells the user what was redone.
+     *
+     * @param tasks   The TaskList whose history is used.
+     * @param ui      The Ui object to interact with the user.
+     * @param storage The Storage object to persist the change.
+     * @throws RequiemException If there is nothing to redo.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
+        String change = tasks.getHistory().redo(tasks, storage);
+        if (change == null) {
+            throw new RequiemException(ERROR_NOTHING_TO_REDO);
+        }
+        ui.showRedone(change, tasks.size());
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -1,5 +1,13 @@
 package goldexperiencerequiem;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * Requiem is a personal assistant chatbot.
  * It follows an OOP structure with specialized classes for Ui, Storage,
@@ -8,11 +16,34 @@ package goldexperiencerequiem;
 public class Requiem {
 
     private static final String DEFAULT_FILE_NAME = "requiem.txt";
+    private static final String STORAGE_FORMAT_PROPERTY = "requiem.storage.format";
+    private static final String BINARY_FORMAT = "binary";
+    private static final String SYNC_POLICY_PROPERTY = "requiem.storage.fsync";
+    private static final String JMX_PROPERTY = "requiem.jmx";
+    private static final String UNDO_LIMIT_PROPERTY = "requiem.undo.limit";
+    private static final String TASK_STORE_PROPERTY = "requiem.tasks.columnar";
+
+    private static final String SCRIPT_OPTION = "--script";
+    private static final String SAVE_EVERY_OPTION = "--save-every";
+    private static final String SERVE_OPTION = "--serve";
+    private static final String USAGE =
+            "Usage: Requiem [--script <file> [--save-every <commands>] | --serve <port>]";
+    private static final String ERROR_SCRIPT_FAILED = "Couldn't read the script: ";
+    private static final String ERROR_SERVER_FAILED = "Couldn't start the server: ";
+    private static final String MESSAGE_SERVING = "Sharing the board on localhost port %d.";
 
     private Storage storage;
     private TaskList tasks;
     private Ui ui;
     private boolean isLastCommandExit = false;
+    private boolean isLastCommandError = false;
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * Held while a command executes, so that commands from several clients of
+     * a {@link RequiemServer} change the task list and storage one at a time.
+     */
+    private final Object commandLock = new Object();
 
     /**
      * Initializes the Requiem assistant with the specified storage file name.
@@ -20,14 +51,48 @@ public class Requiem {
      * @param fileName The name of the file used for storage.
      */
     public Requiem(String fileName) {
+        this(new Storage(fileName));
+    }
+
+    /**
+     * Initializes the Requiem assistant with the specified storage file.
+     *
+     * @param path The path of the file used for storage.
+     */
+    public Requiem(Path path) {
+        this(new Storage(path));
+    }
+
+    private Requiem(Storage storage) {
         ui = new Ui();
-        storage = new Storage(fileName);
+        this.storage = storage;
+        storage.enableJournal();
+        storage.enableWriteBehind();
+        if (BINARY_FORMAT.equals(System.getProperty(STORAGE_FORMAT_PROPERTY))) {
+            storage.enableBinaryFormat();
+        }
+        storage.setSyncPolicy(SyncPolicy.fromName(System.getProperty(SYNC_POLICY_PROPERTY), SyncPolicy.BATCHED));
+        storage.enableMetrics(metrics);
+        storage.enableErrorOutput(ui::showWarning);
+        long loadStart = System.nanoTime();
         try {
             tasks = new TaskList(storage.load());
         } catch (Exception e) {
             ui.showLoadingError();
             tasks = new TaskList();
         }
+        if (Boolean.getBoolean(TASK_STORE_PROPERTY)) {
+            tasks.enableTaskStore();
+        } else {
+            metrics.setDescriptionPool(tasks.getDescriptionPool());
+        }
+        metrics.recordLoad(System.nanoTime() - loadStart, tasks.size());
+        tasks.getHistory().setMaxBytes(Math.max(0, Long.getLong(UNDO_LIMIT_PROPERTY, History.DEFAULT_MAX_BYTES)));
+        // Starting JMX would triple the startup time of a short session, so
+        // it is only done when asked for, or by the long-running server
+        if (Boolean.getBoolean(JMX_PROPERTY)) {
+            metrics.registerMBean();
+        }
     }
 
     /**
@@ -44,9 +109,7 @@ public class Requiem {
                     continue;
                 }
                 ui.showLine();
-                Command c = Parser.parse(fullCommand);
-                c.execute(tasks, ui, storage);
-                isExit = c.isExit();
+                isExit = parseAndExecute(fullCommand, ui).isExit();
             } catch (RequiemException e) {
                 ui.showError(e.getMessage());
             } catch (Exception e) {
@@ -55,9 +118,164 @@ public class Requiem {
                 ui.showLine();
             }
         }
+        close();
         ui.close();
     }
 
+    /**
+     * Runs every command in a script file, one per line, until the end of the
+     * file or a bye command. Blank lines are skipped.
+     * <p>
+     * Each command produces the same output as in an interactive session, but
+     * it is written through one buffered writer, and storage writes are deferred:
+     * the task list is saved once at the end, and every {@code saveInterval}
+     * commands if that is positive.
+     *
+     * @param script       The file of commands to run.
+     * @param saveInterval Number of commands between saves, or 0 to save only
+     *                     at the end.
+     */
+    public void runScript(Path script, int saveInterval) {
+        assert saveInterval >= 0 : "Requiem: save interval should not be negative";
+        ui.enableBufferedOutput(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        storage.deferWrites();
+        ui.showWelcome();
+
+        try (BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8)) {
+            int commandsSinceSave = 0;
+            boolean isExit = false;
+            String line;
+            while (!isExit && (line = reader.readLine()) != null) {
+                String fullCommand = line.trim();
+                if (fullCommand.isEmpty()) {
+                    continue;
+                }
+                isExit = executeCommand(fullCommand, ui);
+                if (saveInterval > 0 && ++commandsSinceSave >= saveInterval) {
+                    storage.writeDeferred();
+                    commandsSinceSave = 0;
+                }
+            }
+        } catch (IOException e) {
+            ui.showError(ERROR_SCRIPT_FAILED + e.getMessage());
+        }
+        close();
+        ui.close();
+    }
+
+    /**
+     * Parses and executes one command, with dividers around its output.
+     * <p>
+     * Safe to call from several threads at once: commands are parsed in
+     * parallel but executed one at a time.
+     *
+     * @param fullCommand The command to run.
+     * @param ui          Where to show the command's output.
+     * @return {@code true} if the command was an exit command.
+     */
+    boolean executeCommand(String fullCommand, Ui ui) {
+        ui.showLine();
+        try {
+            return parseAndExecute(fullCommand, ui).isExit();
+        } catch (RequiemException e) {
+            ui.showError(e.getMessage());
+        } catch (Exception e) {
+            ui.showError(e.getMessage());
+        } finally {
+            ui.showLine();
+        }
+        return false;
+    }
+
+    /**
+     * Parses and executes one command, recording how long each part took in
+     * the {@link Metrics}. Commands are parsed in parallel but executed one
+     * at a time.
+     *
+     * @param fullCommand The command to run.
+     * @param ui          Where to show the command's output.
+     * @return The command that was executed.
+     * @throws RequiemException If the command is invalid or fails.
+     */
+    private Command parseAndExecute(String fullCommand, Ui ui) throws RequiemException {
+        long start = System.nanoTime();
+        Command command;
+        try {
+            command = Parser.parse(fullCommand);
+        } catch (RequiemException e) {
+            metrics.recordInvalidCommand(System.nanoTime() - start);
+            throw e;
+        }
+        long parsed = System.nanoTime();
+        synchronized (commandLock) {
+            boolean isFailed = true;
+            storage.takeCallerNanos();
+            try {
+                command.execute(tasks, ui, storage);
+                isFailed = false;
+            } finally {
+                metrics.recordCommand(command, parsed - start, System.nanoTime() - parsed,
+                        storage.takeCallerNanos(), isFailed);
+            }
+        }
+        return command;
+    }
+
+    /**
+     * Shares the task board with clients on a local port until the process
+     * is stopped. The metrics are registered over JMX while serving. When
+     * the process is stopped, commands still running are allowed to finish
+     * and the storage is closed before it exits.
+     *
+     * @param port The port to listen on.
+     */
+    public void serve(int port) {
+        RequiemServer server;
+        try {
+            server = new RequiemServer(this, port);
+        } catch (IOException e) {
+            ui.showError(ERROR_SERVER_FAILED + e.getMessage());
+            close();
+            ui.close();
+            return;
+        }
+        metrics.registerMBean();
+        // serve() only returns once the server is closed, so on Ctrl+C the
+        // hook is what lets running commands finish and closes the journal
+        Thread shutdownHook = new Thread(() -> {
+            server.close();
+            close();
+        });
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        ui.showWarning(String.format(MESSAGE_SERVING, server.getPort()));
+        server.serve();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, so the hook closes everything
+            return;
+        }
+        close();
+    }
+
+    /**
+     * Shows a message about something that went wrong outside any command on
+     * the assistant's own output, in order with everything written so far.
+     *
+     * @param message The message to show.
+     */
+    void showWarning(String message) {
+        ui.showWarning(message);
+    }
+
+    /**
+     * Writes out any pending changes and releases the storage files.
+     */
+    public void close() {
+        storage.close();
+        metrics.unregisterMBean();
+    }
+
     /**
      * Generates a response for a single user input.
      * <p>
@@ -73,21 +291,23 @@ public class Requiem {
     public String getResponse(String input) {
         ui.enableGuiMode();
         ui.resetBuffer();
+        isLastCommandError = false;
 
         try {
             if (input == null || input.trim().isEmpty()) {
                 return "";
             }
 
-            Command command = Parser.parse(input);
-            command.execute(tasks, ui, storage);
+            Command command = parseAndExecute(input, ui);
             isLastCommandExit = command.isExit();
 
             return ui.getBufferedOutput();
         } catch (RequiemException e) {
+            isLastCommandError = true;
             ui.showError(e.getMessage());
             return ui.getBufferedOutput();
         } catch (Exception e) {
+            isLastCommandError = true;
             ui.showError(e.getMessage());
             return ui.getBufferedOutput();
         }
@@ -104,12 +324,62 @@ public class Requiem {
         return isLastCommandExit;
     }
 
+    /**
+     * Returns whether the last command processed by {@link #getResponse}
+     * failed, so that its response is an error message.
+     *
+     * @return {@code true} if the last command failed, {@code false}
+     *         otherwise.
+     */
+    public boolean isLastCommandError() {
+        return isLastCommandError;
+    }
+
     /**
      * Serves as the entry point of the application.
+     * <p>
+     * With no arguments, runs an interactive session. With
+     * {@code --script <file>}, runs the commands in the file instead, saving
+     * every {@code --save-every <commands>} commands if given. With
+     * {@code --serve <port>}, shares the task board with clients on that local
+     * port instead.
      *
-     * @param args The command line arguments (not used).
+     * @param args The command line arguments.
      */
     public static void main(String[] args) {
-        new Requiem(DEFAULT_FILE_NAME).run();
+        Path script = null;
+        int saveInterval = 0;
+        int port = -1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (SCRIPT_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    script = Paths.get(args[++i]);
+                } else if (SAVE_EVERY_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    saveInterval = Integer.parseInt(args[++i]);
+                } else if (SERVE_OPTION.equals(args[i]) && i + 1 < args.length) {
+                    port = Integer.parseInt(args[++i]);
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(USAGE);
+            return;
+        }
+        boolean isServing = port != -1;
+        if (saveInterval < 0 || (saveInterval > 0 && script == null) || (isServing && script != null)
+                || (isServing && (port < 0 || port > 0xFFFF))) {
+            System.err.println(USAGE);
+            return;
+        }
+
+        Requiem requiem = new Requiem(DEFAULT_FILE_NAME);
+        if (isServing) {
+            requiem.serve(port);
+        } else if (script == null) {
+            requiem.run();
+        } else {
+            requiem.runScript(script, saveInterval);
+        }
     }
 }
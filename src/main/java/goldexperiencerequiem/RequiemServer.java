@@ -0,0 +1,161 @@
+package goldexperiencerequiem;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares one task board between many clients over a local TCP socket.
+ * <p>
+ * The server only listens on the loopback address. Each client gets its own
+ * thread and talks to the server the same way as to an interactive session:
+ * it sends one command per line and gets back the same output the terminal
+ * would show, starting with the welcome message. Commands from all clients
+ * run against the same {@link Requiem}, which executes them one at a time.
+ * A bye command ends that client's connection only.
+ */
+public class RequiemServer {
+
+    private static final String CLIENT_THREAD_PREFIX = "requiem-client-";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final String ERROR_CLIENT_FAILED = "Lost a client: ";
+    private static final String ERROR_CLOSE_FAILED = "Couldn't shut the server down cleanly: ";
+
+    private final Requiem requiem;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private final ExecutorService clientExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, CLIENT_THREAD_PREFIX + clientCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates a server for the given assistant and starts listening on the
+     * loopback address. Clients are not accepted until {@link #serve()} is
+     * called.
+     *
+     * @param requiem The assistant whose task board is shared.
+     * @param port    The port to listen on, or 0 to pick a free one.
+     * @throws IOException If the port cannot be bound.
+     */
+    public RequiemServer(Requiem requiem, int port) throws IOException {
+        assert requiem != null : "RequiemServer: requiem should not be null";
+        this.requiem = requiem;
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts clients until the server is closed, handing each one to its own
+     * thread.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                clients.add(client);
+                clientExecutor.execute(() -> handle(client));
+            } catch (SocketException e) {
+                // Thrown by accept() once close() shuts the server socket
+                break;
+            } catch (IOException e) {
+                requiem.showWarning(ERROR_CLIENT_FAILED + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs one client's session.
+     * <p>
+     * Output is collected in memory while the command runs and only sent once
+     * it is done, so a client that is slow to read never holds up the
+     * commands of other clients.
+     */
+    private void handle(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            StringWriter response = new StringWriter();
+            Ui ui = new Ui(response);
+            ui.showWelcome();
+            send(ui, response, out);
+
+            boolean isExit = false;
+            String line;
+            while (!isExit && (line = in.readLine()) != null) {
+                String fullCommand = line.trim();
+                if (fullCommand.isEmpty()) {
+                    continue;
+                }
+                isExit = requiem.executeCommand(fullCommand, ui);
+                send(ui, response, out);
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                requiem.showWarning(ERROR_CLIENT_FAILED + e.getMessage());
+            }
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    private static void send(Ui ui, StringWriter response, Writer out) throws IOException {
+        ui.flush();
+        StringBuffer text = response.getBuffer();
+        out.append(text);
+        out.flush();
+        text.setLength(0);
+    }
+
+    /**
+     * Stops accepting clients, disconnects the connected ones and waits for
+     * any command still running to finish. The assistant itself is left open.
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            requiem.showWarning(ERROR_CLOSE_FAILED + e.getMessage());
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+        clientExecutor.shutdown();
+        try {
+            clientExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package goldexperiencerequiem;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The orders a task list can be shown in by {@code sort} and
+ * {@code list --sort}. Tasks that tie keep their order in the list.
+ * <p>
+ * Each task gets a primitive key, packed together with its position into a
+ * {@code long}, and the longs are sorted, so tasks are never compared
+ * directly or rendered: dates become epoch days and types small numbers. For
+ * names, only the distinct descriptions are sorted, ignoring case, and each
+ * task is keyed by its description's rank among them. Status has only two
+ * values, so its order is a single pass.
+ */
+public enum SortOrder {
+    /** By deadline due date or event start date, with todos last. */
+    DATE,
+
+    /** Tasks not done yet first. */
+    STATUS,
+
+    /** Todos, then deadlines, then events. */
+    TYPE,
+
+    /** By description, ignoring case. */
+    NAME;
+
+    private static final int POSITION_BITS = 32;
+    private static final long POSITION_MASK = 0xFFFFFFFFL;
+    private static final int TODO_KEY = 0;
+    private static final int DEADLINE_KEY = 1;
+    private static final int EVENT_KEY = 2;
+
+    /**
+     * Returns the order with the given name, ignoring case.
+     *
+     * @param name The order name, e.g. {@code date}.
+     * @return The matching order, or null if there is none.
+     */
+    public static SortOrder fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the name of the order as the user types it.
+     *
+     * @return The lower-case name.
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns whether the order of a list can change without tasks being
+     * added or removed, as it can by status when tasks are marked.
+     *
+     * @return True if the order depends on whether tasks are done.
+     */
+    boolean dependsOnStatus() {
+        return this == STATUS;
+    }
+
+    /**
+     * Sorts the positions of a range of tasks in the list.
+     *
+     * @param tasks The tasks.
+     * @param from  The first position to sort.
+     * @param to    The position just past the last one to sort.
+     * @return The positions in the range, in this order.
+     */
+    int[] sort(List<Task> tasks, int from, int to) {
+        switch (this) {
+            case STATUS:
+                return sortByStatus(tasks, from, to);
+            case NAME:
+                return sortByKeys(nameRanks(tasks, from, to), from);
+            default:
+                int[] keys = new int[to - from];
+                for (int i = from; i < to; i++) {
+                    keys[i - from] = key(tasks.get(i));
+                }
+                return sortByKeys(keys, from);
+        }
+    }
+
+    /**
+     * Sorts positions by their keys, keeping positions with equal keys in
+     * ascending order.
+     *
+     * @param keys The key of each position, starting from {@code from}.
+     * @param from The position of the first key.
+     */
+    private static int[] sortByKeys(int[] keys, int from) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            // Positions are never negative, so they fill the low bits without
+            // touching the key's sign
+            packed[i] = (long) keys[i] << POSITION_BITS | (from + i);
+        }
+        Arrays.sort(packed);
+        int[] positions = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            positions[i] = (int) (packed[i] & POSITION_MASK);
+        }
+        return positions;
+    }
+
+    private int key(Task task) {
+        if (this == DATE) {
+            if (task instanceof Deadline) {
+                return (int) ((Deadline) task).by.toEpochDay();
+            } else if (task instanceof Event) {
+                return (int) ((Event) task).from.toEpochDay();
+            }
+            return Integer.MAX_VALUE;
+        }
+        if (task instanceof Deadline) {
+            return DEADLINE_KEY;
+        } else if (task instanceof Event) {
+            return EVENT_KEY;
+        }
+        return TODO_KEY;
+    }
+
+    private static int[] sortByStatus(List<Task> tasks, int from, int to) {
+        int[] positions = new int[to - from];
+        int notDone = 0;
+        for (int i = from; i < to; i++) {
+            if (!tasks.get(i).isDone) {
+                positions[notDone++] = i;
+            }
+        }
+        int done = notDone;
+        for (int i = from; i < to; i++) {
+            if (tasks.get(i).isDone) {
+                positions[done++] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Ranks the descriptions of a range of tasks, ignoring case. Tasks share
+     * descriptions often enough that sorting just the distinct ones is much
+     * less work than sorting the tasks.
+     */
+    private static int[] nameRanks(List<Task> tasks, int from, int to) {
+        HashMap<String, Integer> ranks = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            ranks.putIfAbsent(tasks.get(i).description, 0);
+        }
+        String[] names = ranks.keySet().toArray(new String[0]);
+        Arrays.sort(names, String.CASE_INSENSITIVE_ORDER);
+        int rank = 0;
+        for (int i = 0; i < names.length; i++) {
+            // Names differing only in case share a rank
+            if (i > 0 && String.CASE_INSENSITIVE_ORDER.compare(names[i - 1], names[i]) != 0) {
+                rank++;
+            }
+            ranks.put(names[i], rank);
+        }
+        int[] keys = new int[to - from];
+        for (int i = from; i < to; i++) {
+            keys[i - from] = ranks.get(tasks.get(i).description);
+        }
+        return keys;
+    }
+
+    /**
+     * Merges two sorted runs of positions, as when tasks have been appended
+     * since the list was last sorted. Each position of the right run, usually
+     * the short one, is placed by a binary search of the left run, so the
+     * tasks are compared only a few times for each appended one.
+     *
+     * @param tasks The tasks.
+     * @param left  Positions sorted in this order.
+     * @param right More positions sorted in this order, all after those in
+     *              {@code left}.
+     * @return All the positions, in this order.
+     */
+    int[] merge(List<Task> tasks, int[] left, int[] right) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0;
+        int k = 0;
+        for (int position : right) {
+            // Ties go to the left run, whose tasks come first in the list
+            int low = i;
+            int high = left.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(tasks, left[middle], position) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            System.arraycopy(left, i, merged, k, low - i);
+            k += low - i;
+            i = low;
+            merged[k++] = position;
+        }
+        System.arraycopy(left, i, merged, k, left.length - i);
+        return merged;
+    }
+
+    private int compare(List<Task> tasks, int a, int b) {
+        switch (this) {
+            case STATUS:
+                return Boolean.compare(tasks.get(a).isDone, tasks.get(b).isDone);
+            case NAME:
+                return String.CASE_INSENSITIVE_ORDER.compare(tasks.get(a).description, tasks.get(b).description);
+            default:
+                return Integer.compare(key(tasks.get(a)), key(tasks.get(b)));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package goldexperiencerequiem;
+
+import java.util.List;
+
+/**
+ * A task list snapshot together with the order to show it in. Tasks keep
+ * their positions in the list, so they can still be marked or deleted by the
+ * numbers shown next to them.
+ */
+public class SortedView {
+    private final List<Task> tasks;
+    private final int[] order;
+
+    /**
+     * Creates a view of the tasks in the given order.
+     *
+     * @param tasks An unchanging snapshot of the task list.
+     * @param order Every position in the snapshot, in the order to show them.
+     */
+    public SortedView(List<Task> tasks, int[] order) {
+        assert tasks.size() == order.length : "SortedView: order should cover every task";
+        this.tasks = tasks;
+        this.order = order;
+    }
+
+    /**
+     * Returns the number of tasks in the view.
+     *
+     * @return The task count.
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Returns the position in the task list of the task shown at the given
+     * rank.
+     *
+     * @param rank Zero-based place in the sorted order.
+     * @return The zero-based index of the task in the list.
+     */
+    public int getIndex(int rank) {
+        return order[rank];
+    }
+
+    /**
+     * Returns the task shown at the given rank.
+     *
+     * @param rank Zero-based place in the sorted order.
+     * @return The task.
+     */
+    public Task getTask(int rank) {
+        return tasks.get(order[rank]);
+    }
+}
@@ -0,0 +1,31 @@
+package goldexperiencerequiem;
+
+/**
+ * Represents a command to show how commands and storage have been performing
+ * since startup.
+ */
+public class StatsCommand extends Command {
+
+    /**
+     * Executes the stats command.
+     * Displays the metrics kept by the storage, if any.
+     *
+     * @param tasks   The TaskList, whose current size is shown.
+     * @param ui      The Ui object to interact with the user.
+     * @param storage The Storage object holding the metrics.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) {
+        Metrics metrics = storage.getMetrics();
+        if (metrics == null) {
+            ui.showNoStats();
+            return;
+        }
+        ui.showStats(tasks.size(), metrics.getSummary());
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -1,14 +1,28 @@
 package goldexperiencerequiem;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Handles saving and loading tasks from a file.
@@ -29,8 +43,83 @@ public class Storage {
 
     private static final String ERROR_SAVE_FAILED = " Error saving tasks: ";
     private static final String ERROR_LOAD_FAILED = " Error loading tasks: ";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String SNAPSHOT_HEADER_PREFIX = "# ";
+    private static final String COMPACTOR_THREAD_NAME = "requiem-compactor";
+    private static final String WRITER_THREAD_NAME = "requiem-writer";
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
 
     private final Path path;
+    private final Path tempPath;
+    private final Journal journal;
+
+    /**
+     * Guards writes of the data file, which may come from either the caller or
+     * the background compactor.
+     */
+    private final Object snapshotLock = new Object();
+    private final AtomicBoolean isCompacting = new AtomicBoolean(false);
+    private ExecutorService compactor;
+    private volatile WriteBehindQueue writeBehind;
+
+    /**
+     * Flushes write-behind mutations if the JVM exits before {@link #close()}.
+     */
+    private Thread flushHook;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private int recordsSinceSnapshot = 0;
+
+    /**
+     * Journal sequence number covered by the data file currently on disk.
+     */
+    private long snapshotSeq = 0;
+
+    /**
+     * Indicates whether mutations are appended to the {@link #journal} instead of
+     * rewriting the whole data file.
+     */
+    private boolean isJournaled = false;
+
+    /**
+     * Indicates whether snapshots are written in {@link BinaryTaskFormat}
+     * instead of the pipe-delimited text format.
+     */
+    private boolean isBinary = false;
+    private SyncPolicy syncPolicy = SyncPolicy.BATCHED;
+
+    /**
+     * Indicates whether mutations are held back until {@link #writeDeferred()}
+     * instead of being recorded one by one.
+     */
+    private boolean isDeferred = false;
+
+    /**
+     * The task list to save on the next {@link #writeDeferred()}, or null if
+     * nothing has changed since the last one.
+     */
+    private List<Task> deferredTasks;
+
+    /**
+     * Receives the time and size of background writes, or null if no
+     * metrics are kept.
+     */
+    private volatile Metrics metrics;
+
+    /**
+     * Shows messages about failed saves and loads. Called from the background
+     * writer as well as from the caller's thread.
+     */
+    private volatile Consumer<String> errorOutput = System.out::println;
+
+    /**
+     * Time the caller has spent in storage calls since it last asked, for
+     * timing each command's storage work. Only touched by the thread running
+     * commands.
+     */
+    private long callerNanos = 0;
 
     /**
      * Initializes the Storage with a file path.
@@ -38,68 +127,578 @@ public class Storage {
      * @param fileName Name of the data file.
      */
     public Storage(String fileName) {
-        this.path = Paths.get(DEFAULT_DIRECTORY, fileName);
+        this(Paths.get(DEFAULT_DIRECTORY, fileName));
+    }
+
+    /**
+     * Initializes the Storage with the exact location of the data file.
+     *
+     * @param path Path of the data file.
+     */
+    public Storage(Path path) {
+        this.path = path;
+        this.tempPath = Paths.get(path + TEMP_SUFFIX);
+        this.journal = new Journal(Paths.get(path + JOURNAL_SUFFIX));
+    }
+
+    /**
+     * Enables journaled mode.
+     * <p>
+     * In journaled mode, each mutation appends one record to a journal file next
+     * to the data file instead of rewriting every task. The journal is replayed
+     * on {@link #load()} and discarded on the next full {@link #save}.
+     * <p>
+     * Once enough records pile up, the journal is compacted in the background:
+     * a fresh snapshot is written to the data file and the records it covers
+     * are dropped, so startup only replays the tail written since.
+     */
+    public void enableJournal() {
+        isJournaled = true;
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, COMPACTOR_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Enables the binary data file format.
+     * <p>
+     * Snapshots are then written with {@link BinaryTaskFormat}. Either format
+     * is recognised on {@link #load()}, and a text data file is rewritten in
+     * the binary format as soon as it has been loaded.
+     */
+    public void enableBinaryFormat() {
+        isBinary = true;
+    }
+
+    /**
+     * Enables write-behind mode.
+     * <p>
+     * Writes are then handed to a single background writer thread, so
+     * recording a mutation no longer waits for the disk. Mutations that pile
+     * up while the writer is busy are written together and committed with one
+     * flush. Call {@link #flush()} or {@link #close()} before exiting so no
+     * recorded mutation is lost; a shutdown hook also flushes as a fallback.
+     */
+    public void enableWriteBehind() {
+        if (writeBehind != null) {
+            return;
+        }
+        writeBehind = new WriteBehindQueue(WRITER_THREAD_NAME, this::commitJournal,
+                e -> errorOutput.accept(ERROR_SAVE_FAILED + e.getMessage()));
+        flushHook = new Thread(this::flush);
+        Runtime.getRuntime().addShutdownHook(flushHook);
+    }
+
+    /**
+     * Enables metrics.
+     * <p>
+     * Every journal commit and snapshot write is then timed, and its size
+     * counted, in the given metrics.
+     *
+     * @param metrics The metrics to record writes in.
+     */
+    public void enableMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sends messages about failed saves and loads to the given output instead
+     * of {@code System.out}, so they appear in order with the rest of the
+     * output. The output must accept messages from any thread.
+     *
+     * @param errorOutput Shows one message.
+     */
+    public void enableErrorOutput(Consumer<String> errorOutput) {
+        this.errorOutput = errorOutput;
+    }
+
+    /**
+     * Returns the metrics writes are recorded in.
+     *
+     * @return The metrics, or null if metrics are not enabled.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the time spent in calls to record mutations or flush since the
+     * last call to this method, and starts counting again from zero.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long takeCallerNanos() {
+        long nanos = callerNanos;
+        callerNanos = 0;
+        return nanos;
+    }
+
+    /**
+     * Defers writes.
+     * <p>
+     * Mutations are then not recorded as they happen. Instead, the whole list
+     * is saved once on {@link #writeDeferred()}, {@link #flush()} or
+     * {@link #close()}, however many mutations came before. This suits long
+     * non-interactive runs, at the cost of losing every change since the last
+     * write if the process dies.
+     */
+    public void deferWrites() {
+        isDeferred = true;
+    }
+
+    /**
+     * Saves the task list if it has changed since writes were deferred or last
+     * written out. Does nothing unless writes are deferred.
+     */
+    public void writeDeferred() {
+        if (deferredTasks == null) {
+            return;
+        }
+        List<Task> tasks = deferredTasks;
+        deferredTasks = null;
+        save(tasks);
+    }
+
+    /**
+     * Sets when snapshots and journal records are forced to disk.
+     *
+     * @param syncPolicy The policy to apply to subsequent writes.
+     */
+    public void setSyncPolicy(SyncPolicy syncPolicy) {
+        assert syncPolicy != null : "Storage: sync policy should not be null";
+        this.syncPolicy = syncPolicy;
+        journal.setSyncPolicy(syncPolicy);
+    }
+
+    /**
+     * Sets how many journal records may accumulate before a background
+     * compaction is started.
+     *
+     * @param compactionThreshold Number of records between compactions.
+     */
+    public void setCompactionThreshold(int compactionThreshold) {
+        assert compactionThreshold > 0 : "Storage: compaction threshold should be positive";
+        this.compactionThreshold = compactionThreshold;
     }
 
     /**
      * Saves the list of tasks to the file.
+     * <p>
+     * With write-behind enabled, the write is left to the writer thread; a
+     * later save queued before it runs replaces it. The list structure is
+     * copied first unless it is already an immutable {@link TaskList}
+     * snapshot.
      *
      * @param tasks List of tasks to save.
      */
-    public void save(ArrayList<Task> tasks) {
-        try {
+    public void save(List<Task> tasks) {
+        recordsSinceSnapshot = 0;
+        if (writeBehind == null) {
+            runWrite(() -> saveSnapshot(tasks));
+            return;
+        }
+        List<Task> snapshot = freeze(tasks);
+        writeBehind.submitFullSave(() -> saveSnapshot(snapshot));
+    }
+
+    /**
+     * Returns a list with the same tasks that will not change under a
+     * background write: the list itself if it is a {@link TaskList} snapshot,
+     * or a copy otherwise.
+     */
+    private static List<Task> freeze(List<Task> tasks) {
+        return TaskList.isSnapshot(tasks) ? tasks : new ArrayList<>(tasks);
+    }
+
+    private void saveSnapshot(List<Task> tasks) throws IOException {
+        long seq = journal.getLastSeq();
+        writeSnapshot(tasks, seq);
+        journal.clear();
+        journal.startAfter(seq);
+    }
+
+    /**
+     * Writes the tasks to a temporary file and moves it over the data file, so
+     * readers only ever see a complete snapshot. Unless the sync policy is
+     * {@link SyncPolicy#NEVER}, the temporary file is forced to disk before
+     * the move and the directory after it. A snapshot older than the one
+     * already on disk is dropped.
+     *
+     * @param tasks The tasks to write.
+     * @param seq   The journal sequence number the tasks reflect.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    private void writeSnapshot(List<Task> tasks, long seq) throws IOException {
+        synchronized (snapshotLock) {
+            if (seq < snapshotSeq) {
+                return;
+            }
+            long start = System.nanoTime();
+            long bytes;
             if (path.getParent() != null && !Files.exists(path.getParent())) {
                 Files.createDirectories(path.getParent());
             }
 
-            FileWriter writer = new FileWriter(path.toFile());
-            for (Task task : tasks) {
-                writer.write(task.toFileFormat() + System.lineSeparator());
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+                if (isBinary) {
+                    BinaryTaskFormat.write(out, tasks, seq);
+                } else {
+                    writeTextSnapshot(out, tasks, seq);
+                }
+                out.flush();
+                bytes = channel.position();
+                if (syncPolicy != SyncPolicy.NEVER) {
+                    channel.force(true);
+                }
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (syncPolicy != SyncPolicy.NEVER) {
+                forceDirectory();
+            }
+            snapshotSeq = seq;
+            recordWrite(start, bytes);
+        }
+    }
+
+    /**
+     * Commits the journal, timing the commit and counting the bytes it hands
+     * to the operating system.
+     */
+    private void commitJournal() throws IOException {
+        long start = System.nanoTime();
+        long bytesBefore = journal.getBytesWritten();
+        journal.commit();
+        recordWrite(start, journal.getBytesWritten() - bytesBefore);
+    }
+
+    private void recordWrite(long startNanos, long bytes) {
+        Metrics current = metrics;
+        if (current != null) {
+            current.recordStorageWrite(System.nanoTime() - startNanos, bytes);
+        }
+    }
+
+    private void writeTextSnapshot(OutputStream out, List<Task> tasks, long seq) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        if (isJournaled) {
+            writer.write(SNAPSHOT_HEADER_PREFIX + seq + System.lineSeparator());
+        }
+        for (Task task : tasks) {
+            writer.write(task.toFileFormat());
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Forces the directory entry of the data file to disk, so the rename
+     * itself survives a crash. Not every platform lets a directory be opened,
+     * in which case this is skipped.
+     */
+    private void forceDirectory() {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened for syncing on some platforms
+        }
+    }
+
+    /**
+     * Starts a background compaction if enough records have accumulated and
+     * none is already running.
+     * <p>
+     * Only the list structure is copied here; writing it out happens on the
+     * compactor thread so the caller is not held up by the disk. The journal
+     * is rotated in line with the other writes, so the snapshot's sequence
+     * number is that of the last record queued before the copy. Tasks marked
+     * or unmarked after the copy are corrected by the records that follow.
+     *
+     * @param tasks The current list of tasks.
+     */
+    private void compactIfNeeded(List<Task> tasks) {
+        if (recordsSinceSnapshot < compactionThreshold || !isCompacting.compareAndSet(false, true)) {
+            return;
+        }
+        recordsSinceSnapshot = 0;
+        List<Task> snapshot = freeze(tasks);
+        submit(() -> startCompaction(snapshot));
+    }
+
+    private void startCompaction(List<Task> snapshot) throws IOException {
+        try {
+            long seq = journal.getLastSeq();
+            journal.rotate();
+            compactor.execute(() -> compact(snapshot, seq));
+        } catch (IOException e) {
+            isCompacting.set(false);
+            throw e;
+        }
+    }
+
+    private void compact(List<Task> snapshot, long seq) {
+        try {
+            writeSnapshot(snapshot, seq);
+            journal.discardRotated();
+        } catch (IOException e) {
+            errorOutput.accept(ERROR_SAVE_FAILED + e.getMessage());
+        } finally {
+            isCompacting.set(false);
+        }
+    }
+
+    /**
+     * Blocks until every mutation recorded so far has been written and, unless
+     * the sync policy is {@link SyncPolicy#NEVER}, forced to disk.
+     */
+    public void flush() {
+        long start = System.nanoTime();
+        writeDeferred();
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+        runWrite(journal::syncNow);
+        callerNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Flushes pending writes, waits for any running compaction to finish and
+     * releases the journal. The write-behind shutdown hook is removed, so a
+     * closed storage is no longer kept reachable by the runtime.
+     */
+    public void close() {
+        writeDeferred();
+        removeFlushHook();
+        try {
+            if (writeBehind != null) {
+                writeBehind.close();
+                writeBehind = null;
+            }
+            if (compactor != null) {
+                compactor.shutdown();
+                compactor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                compactor = null;
+            }
+            journal.close();
+        } catch (IOException e) {
+            errorOutput.accept(ERROR_SAVE_FAILED + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void removeFlushHook() {
+        if (flushHook == null) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(flushHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down, so the hook flushes after this close
+        }
+        flushHook = null;
+    }
+
+    /**
+     * Persists the addition of a task to the end of the list.
+     *
+     * @param tasks The full list of tasks, after the addition.
+     * @param task  The task that was added.
+     */
+    public void recordAdd(List<Task> tasks, Task task) {
+        String taskRecord = task.toFileFormat();
+        record(tasks, () -> journal.appendAdd(taskRecord));
+    }
+
+    /**
+     * Persists the removal of the task at the given index.
+     *
+     * @param tasks The full list of tasks, after the removal.
+     * @param index Zero-based index the task was removed from.
+     */
+    public void recordDelete(List<Task> tasks, int index) {
+        record(tasks, () -> journal.appendDelete(index));
+    }
+
+    /**
+     * Persists that the task at the given index was marked as done.
+     *
+     * @param tasks The full list of tasks.
+     * @param index Zero-based index of the marked task.
+     */
+    public void recordMark(List<Task> tasks, int index) {
+        record(tasks, () -> journal.appendMark(index));
+    }
+
+    /**
+     * Persists that the task at the given index was marked as not done.
+     *
+     * @param tasks The full list of tasks.
+     * @param index Zero-based index of the unmarked task.
+     */
+    public void recordUnmark(List<Task> tasks, int index) {
+        record(tasks, () -> journal.appendUnmark(index));
+    }
+
+    /**
+     * Persists that tasks were put back into the list, as a single write.
+     *
+     * @param tasks    The full list of tasks, after the insertion.
+     * @param indices  Zero-based indices the tasks now have, in ascending
+     *                 order.
+     * @param inserted The inserted tasks, in the same order.
+     */
+    public void recordInserts(List<Task> tasks, int[] indices, List<Task> inserted) {
+        String[] taskRecords = new String[inserted.size()];
+        for (int i = 0; i < taskRecords.length; i++) {
+            taskRecords[i] = inserted.get(i).toFileFormat();
+        }
+        record(tasks, () -> {
+            for (int i = 0; i < taskRecords.length; i++) {
+                journal.appendInsert(indices[i], taskRecords[i]);
             }
-            writer.close();
+        });
+    }
+
+    /**
+     * Persists the removal of several tasks as a single write.
+     *
+     * @param tasks   The full list of tasks, after the removal.
+     * @param indices Zero-based indices the tasks were removed from, in
+     *                ascending order and without repeats.
+     */
+    public void recordDeletes(List<Task> tasks, int[] indices) {
+        record(tasks, () -> journal.appendDeletes(indices));
+    }
+
+    /**
+     * Persists that several tasks were marked as done, as a single write.
+     *
+     * @param tasks   The full list of tasks.
+     * @param indices Zero-based indices of the marked tasks, in ascending
+     *                order and without repeats.
+     */
+    public void recordMarks(List<Task> tasks, int[] indices) {
+        record(tasks, () -> journal.appendMarks(indices));
+    }
+
+    /**
+     * Persists that several tasks were marked as not done, as a single write.
+     *
+     * @param tasks   The full list of tasks.
+     * @param indices Zero-based indices of the unmarked tasks, in ascending
+     *                order and without repeats.
+     */
+    public void recordUnmarks(List<Task> tasks, int[] indices) {
+        record(tasks, () -> journal.appendUnmarks(indices));
+    }
+
+    /**
+     * Persists one mutation: not at all until later when writes are deferred,
+     * as a journal record in journaled mode, or else by saving the whole list.
+     *
+     * @param tasks  The full list of tasks, after the mutation.
+     * @param append Appends the mutation's record to the journal.
+     */
+    private void record(List<Task> tasks, WriteBehindQueue.Write append) {
+        long start = System.nanoTime();
+        if (isDeferred) {
+            deferredTasks = tasks;
+        } else if (!isJournaled) {
+            save(tasks);
+        } else {
+            recordsSinceSnapshot++;
+            submit(append);
+            compactIfNeeded(tasks);
+        }
+        callerNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Queues a journal write on the writer thread, or performs and commits it
+     * straight away when write-behind is off.
+     */
+    private void submit(WriteBehindQueue.Write write) {
+        if (writeBehind != null) {
+            writeBehind.submit(write);
+            return;
+        }
+        runWrite(() -> {
+            write.run();
+            commitJournal();
+        });
+    }
+
+    private void runWrite(WriteBehindQueue.Write write) {
+        try {
+            write.run();
         } catch (IOException e) {
-            System.out.println(ERROR_SAVE_FAILED + e.getMessage());
+            errorOutput.accept(ERROR_SAVE_FAILED + e.getMessage());
         }
     }
 
     /**
-     * Loads tasks from the file.
+     * Loads tasks from the file, then replays any journaled mutations on top.
+     * In binary mode, a data file still in the text format is migrated.
      *
      * @return List of tasks loaded from the file.
      */
     public ArrayList<Task> load() {
         ArrayList<Task> tasks = new ArrayList<>();
 
-        if (!Files.exists(path)) {
-            return tasks;
-        }
-
         try {
-            Scanner scanner = new Scanner(path);
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
-                Task task = parseTask(line);
-                if (task != null) {
-                    tasks.add(task);
+            boolean isTextFile = false;
+            if (Files.exists(path)) {
+                if (BinaryTaskFormat.isBinary(path)) {
+                    snapshotSeq = BinaryTaskFormat.read(path, tasks);
+                } else {
+                    readDataFile(tasks);
+                    isTextFile = true;
                 }
             }
-            scanner.close();
-        } catch (IOException e) {
-            System.out.println(ERROR_LOAD_FAILED + e.getMessage());
+            recordsSinceSnapshot = journal.replay(tasks, this::parseTask, snapshotSeq);
+            if (isBinary && isTextFile) {
+                save(tasks);
+            }
+        } catch (IOException | RequiemException e) {
+            errorOutput.accept(ERROR_LOAD_FAILED + e.getMessage());
         }
 
         return tasks;
     }
 
     /**
-     * Parses a single line from the storage file into a Task object.
-     *
-     * @param line The line to parse.
-     * @return The corresponding Task object, or null if the line is corrupted.
+     * Reads a text data file. The lines are parsed in parallel by
+     * {@link ParallelTaskLoader}; the snapshot header, if present, is rejected
+     * by {@link #parseTask} like any other line that is not a task.
      */
+    private void readDataFile(ArrayList<Task> tasks) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header != null && header.startsWith(SNAPSHOT_HEADER_PREFIX)) {
+                snapshotSeq = parseSnapshotSeq(header);
+            }
+        }
+        tasks.addAll(ParallelTaskLoader.load(path, this::parseTask));
+    }
+
+    private long parseSnapshotSeq(String header) {
+        try {
+            return Long.parseLong(header.substring(SNAPSHOT_HEADER_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     /**
      * Parses a single line from the storage file into a Task object.
      *
@@ -0,0 +1,40 @@
+package goldexperiencerequiem;
+
+import java.util.Locale;
+
+/**
+ * Controls when written data is forced from the operating system's cache to
+ * the disk, trading durability against throughput.
+ */
+public enum SyncPolicy {
+    /** Force every snapshot and every journal record before returning. */
+    ALWAYS,
+
+    /**
+     * Force every snapshot, but only force journal records once a batch has
+     * built up or enough time has passed since the last force. Records are
+     * forced within about a second even if nothing else is written after them.
+     */
+    BATCHED,
+
+    /** Never force; rely on the operating system to write data back. */
+    NEVER;
+
+    /**
+     * Returns the policy with the given name, ignoring case.
+     *
+     * @param name         The policy name, or null.
+     * @param defaultValue The policy to use when the name is missing or unknown.
+     * @return The matching policy, or the default.
+     */
+    public static SyncPolicy fromName(String name, SyncPolicy defaultValue) {
+        if (name == null) {
+            return defaultValue;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -12,7 +12,24 @@ public class Task {
 
     protected String description;
 
-    protected boolean isDone;
+    /**
+     * Volatile so that a mark or unmark is seen straight away by threads
+     * reading a {@link TaskList} snapshot, which hold the same task objects.
+     */
+    protected volatile boolean isDone;
+
+    /**
+     * Rendered forms of the task, built on first use and kept separately for
+     * each done status. The rest of a task never changes after it is created,
+     * so a cached string is always right for its status; marking or unmarking
+     * only drops the strings for the status the task is leaving. A storage
+     * thread rendering the task concurrently can therefore never cache a
+     * string for the wrong status.
+     */
+    private String doneDisplayString;
+    private String notDoneDisplayString;
+    private String doneFileFormat;
+    private String notDoneFileFormat;
 
     /**
      * Creates a new Task with the given description.
@@ -30,7 +47,11 @@ public class Task {
      * @return The status icon.
      */
     public String getStatusIcon() {
-        return (isDone ? STATUS_DONE_ICON : STATUS_NOT_DONE_ICON);
+        return getStatusIcon(isDone);
+    }
+
+    private static String getStatusIcon(boolean isMarkedDone) {
+        return (isMarkedDone ? STATUS_DONE_ICON : STATUS_NOT_DONE_ICON);
     }
 
     /**
@@ -38,6 +59,8 @@ public class Task {
      */
     public void markAsDone() {
         this.isDone = true;
+        notDoneDisplayString = null;
+        notDoneFileFormat = null;
     }
 
     /**
@@ -45,25 +68,67 @@ public class Task {
      */
     public void markAsUndone() {
         this.isDone = false;
+        doneDisplayString = null;
+        doneFileFormat = null;
     }
 
     /**
-     * Returns the string representation of the task.
+     * Returns the string representation of the task, rendering it only the
+     * first time it is needed for the current done status.
      *
-     * @return The task status and description.
+     * @return The task as shown to the user.
      */
     @Override
-    public String toString() {
-        return "[" + getStatusIcon() + "] " + description;
+    public final String toString() {
+        if (isDone) {
+            if (doneDisplayString == null) {
+                doneDisplayString = renderString(true);
+            }
+            return doneDisplayString;
+        }
+        if (notDoneDisplayString == null) {
+            notDoneDisplayString = renderString(false);
+        }
+        return notDoneDisplayString;
+    }
+
+    /**
+     * Returns the string representation of the task for saving to a file,
+     * rendering it only the first time it is needed for the current done status.
+     *
+     * @return File-friendly string representation.
+     */
+    public final String toFileFormat() {
+        if (isDone) {
+            if (doneFileFormat == null) {
+                doneFileFormat = renderFileFormat(true);
+            }
+            return doneFileFormat;
+        }
+        if (notDoneFileFormat == null) {
+            notDoneFileFormat = renderFileFormat(false);
+        }
+        return notDoneFileFormat;
+    }
+
+    /**
+     * Builds the string representation of the task.
+     *
+     * @param isMarkedDone The done status to render.
+     * @return The task status and description.
+     */
+    protected String renderString(boolean isMarkedDone) {
+        return "[" + getStatusIcon(isMarkedDone) + "] " + description;
     }
 
     /**
-     * Returns the string representation of the task for saving to a file.
+     * Builds the string representation of the task for saving to a file.
      *
+     * @param isMarkedDone The done status to render.
      * @return File-friendly string representation.
      */
-    public String toFileFormat() {
-        return (isDone ? FILE_DONE_INDICATOR : FILE_NOT_DONE_INDICATOR) + FILE_DELIMITER + description;
+    protected String renderFileFormat(boolean isMarkedDone) {
+        return (isMarkedDone ? FILE_DONE_INDICATOR : FILE_NOT_DONE_INDICATOR) + FILE_DELIMITER + description;
     }
 
     @Override
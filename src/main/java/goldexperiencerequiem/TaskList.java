@@ -1,27 +1,256 @@
 package goldexperiencerequiem;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Manages the list of tasks.
+ * <p>
+ * The list may be shared between threads. Writers are serialized by a lock,
+ * while readers of the list itself never lock: {@link #getAllTasks} returns an
+ * immutable snapshot that stays the same however the list changes afterwards.
+ * Searches go through the indexes, which writers update in place, so they
+ * share a read lock with each other and only wait for a writer in progress.
+ * <p>
+ * Tasks are kept as objects unless {@link #enableTaskStore} has been called,
+ * after which they are kept in the primitive columns of a {@link TaskStore}.
+ * The indexes only know tasks by ordinal either way.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Gap between the ordinals of tasks added one after another, leaving room
+     * to insert tasks between them later.
+     */
+    private static final long ORDINAL_STRIDE = 1L << 16;
+
+    /** Lower bound for the ordinals of tasks inserted before the first task. */
+    private static final long MIN_ORDINAL = -(1L << 62);
+
+    /**
+     * The current contents of the list. Replaced, never changed, by writers;
+     * see {@link Snapshot} and {@link TaskStore} for how appends avoid
+     * copying it.
+     */
+    private volatile TaskSnapshot current;
+
+    /**
+     * Serializes writers and guards the indexes below. Searches take the read
+     * lock; reading {@link #current} does not need it.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Number of occurrences of each task in the list, keyed by
+     * {@link Task#equals}. Kept in step with every add and delete so duplicate
+     * checks do not need to scan the list. A count is kept rather than a set
+     * because a loaded file may already contain duplicates. Left empty while
+     * the list is backed by a {@link TaskStore}, since it would keep every
+     * task object alive.
+     */
+    private final HashMap<Task, Integer> taskCounts = new HashMap<>();
+
+    /**
+     * Ordinal of each task in the list, at the same position. Ordinals only
+     * ever increase along the list, so they order search results without
+     * having to track how positions shift after a delete. A task inserted in
+     * the middle takes an ordinal between those of its neighbours. Only the
+     * first {@link #size} slots are in use; the array doubles when full.
+     */
+    private long[] ordinals;
+    private KeywordIndex keywordIndex = new KeywordIndex();
+    private DateIndex dateIndex = new DateIndex();
+    private long nextOrdinal = 0;
+
+    /** Shares one string between tasks with the same description. */
+    private final DescriptionPool descriptions = new DescriptionPool();
+
+    /** The changes the undo and redo commands can take back or replay. */
+    private final History history = new History(History.DEFAULT_MAX_BYTES);
+
+    /**
+     * The last order worked out for each way of sorting, and the snapshot it
+     * was worked out for. Guarded by its own monitor rather than
+     * {@link #lock}, since sorting only reads snapshots.
+     */
+    private final EnumMap<SortOrder, SortedOrder> sortedOrders = new EnumMap<>(SortOrder.class);
+
+    /**
+     * The positions of a snapshot's tasks in some order, kept so that a later
+     * snapshot over the same array can reuse them.
+     */
+    private static final class SortedOrder {
+        private final TaskSnapshot snapshot;
+        private final int[] order;
+
+        private SortedOrder(TaskSnapshot snapshot, int[] order) {
+            this.snapshot = snapshot;
+            this.order = order;
+        }
+    }
+
+    /**
+     * An immutable view of the first {@code size} tasks of an array.
+     * <p>
+     * An append writes into the slot just past the newest snapshot and
+     * publishes a new snapshot over the same array, so adding a task costs no
+     * more than adding to an {@code ArrayList}. Older snapshots over the array
+     * are shorter and never read that slot. Deleting the last task, as undoing
+     * an add does, just publishes a shorter snapshot and leaves the slot as it
+     * is, since older snapshots can still see it; an append only reuses such
+     * a slot for the very task already in it. Any other delete, or an append
+     * to a full or used slot, copies into a new array instead, so a slot an
+     * existing snapshot can see is never changed.
+     */
+    private static final class Snapshot extends TaskSnapshot {
+        private final Task[] items;
+        private final int size;
+
+        private Snapshot(Task[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        Snapshot withTask(Task task) {
+            Task[] next = items;
+            if (size == items.length) {
+                next = Arrays.copyOf(items, items.length + (items.length >> 1));
+            } else if (items[size] != null && items[size] != task) {
+                next = Arrays.copyOf(items, items.length);
+            }
+            next[size] = task;
+            return new Snapshot(next, size + 1);
+        }
+
+        @Override
+        Snapshot withoutTask(int index) {
+            Objects.checkIndex(index, size);
+            Task[] next = items;
+            if (index < size - 1) {
+                next = new Task[items.length];
+                System.arraycopy(items, 0, next, 0, index);
+                System.arraycopy(items, index + 1, next, index, size - index - 1);
+            }
+            return new Snapshot(next, size - 1);
+        }
+
+        @Override
+        Snapshot withoutTasks(int[] indices) {
+            Task[] next = new Task[items.length];
+            int kept = 0;
+            int removed = 0;
+            for (int i = 0; i < size; i++) {
+                if (removed < indices.length && indices[removed] == i) {
+                    removed++;
+                } else {
+                    next[kept++] = items[i];
+                }
+            }
+            return new Snapshot(next, kept);
+        }
+
+        @Override
+        Snapshot withTasks(int[] indices, List<Task> tasks) {
+            int newSize = size + indices.length;
+            Task[] next = new Task[Math.max(items.length, newSize)];
+            int from = size - 1;
+            int inserted = indices.length - 1;
+            int position = newSize - 1;
+            while (inserted >= 0) {
+                next[position] = indices[inserted] == position ? tasks.get(inserted--) : items[from--];
+                position--;
+            }
+            System.arraycopy(items, 0, next, 0, from + 1);
+            return new Snapshot(next, newSize);
+        }
+
+        @Override
+        void setDone(int index, boolean isDone) {
+            if (isDone) {
+                get(index).markAsDone();
+            } else {
+                get(index).markAsUndone();
+            }
+        }
+
+        @Override
+        boolean sharesStorageWith(TaskSnapshot earlier) {
+            return earlier instanceof Snapshot && ((Snapshot) earlier).items == items;
+        }
+    }
 
     /**
      * Initializes an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this.current = new Snapshot(new Task[INITIAL_CAPACITY], 0);
+        this.ordinals = new long[INITIAL_CAPACITY];
     }
 
     /**
-     * Initializes a TaskList with an existing list of tasks.
+     * Initializes a TaskList with an existing list of tasks. The list is
+     * copied, so later changes to it are not seen by the task list.
      *
      * @param tasks The initial list of tasks.
      */
-    public TaskList(ArrayList<Task> tasks) {
-        this.tasks = tasks;
+    public TaskList(List<Task> tasks) {
+        Task[] items = tasks.toArray(new Task[Math.max(tasks.size(), INITIAL_CAPACITY)]);
+        this.ordinals = new long[items.length];
+        for (int i = 0; i < tasks.size(); i++) {
+            shareDescription(items[i]);
+            ordinals[i] = takeNextOrdinal();
+            indexTask(items[i], ordinals[i]);
+        }
+        this.current = new Snapshot(items, tasks.size());
+    }
+
+    /**
+     * Enables the columnar task store.
+     * <p>
+     * The tasks are then kept in a {@link TaskStore}, as primitive columns and
+     * one arena of description bytes, instead of as objects. Reading a task
+     * builds a new object each time, so a task has to be marked or unmarked
+     * through {@link #setDone}, and undo compares tasks by value rather than
+     * by identity. Duplicate checks go through the keyword index instead of a
+     * table of tasks, and descriptions are no longer pooled, since the store
+     * already keeps a single copy of each task's description bytes.
+     */
+    public void enableTaskStore() {
+        lock.writeLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            if (snapshot instanceof TaskStore) {
+                return;
+            }
+            for (Task task : snapshot) {
+                descriptions.release(task.description);
+            }
+            taskCounts.clear();
+            current = new TaskStore(snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -30,7 +259,18 @@ public class TaskList {
      * @param task The task to add.
      */
     public void addTask(Task task) {
-        tasks.add(task);
+        lock.writeLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            int size = snapshot.size();
+            ensureOrdinalCapacity(size + 1);
+            ordinals[size] = takeNextOrdinal();
+            shareDescription(task);
+            indexTask(task, ordinals[size]);
+            current = snapshot.withTask(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -40,7 +280,206 @@ public class TaskList {
      * @return The task that was removed.
      */
     public Task deleteTask(int index) {
-        return tasks.remove(index);
+        lock.writeLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            Task removedTask = snapshot.get(index);
+            unindexTask(removedTask, ordinals[index]);
+            System.arraycopy(ordinals, index + 1, ordinals, index, snapshot.size() - index - 1);
+            releaseDescription(removedTask);
+            current = snapshot.withoutTask(index);
+            return removedTask;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes several tasks at once, in a single pass over the list.
+     *
+     * @param indices The indices of the tasks to delete, in ascending order
+     *                and without repeats.
+     * @return The tasks that were removed, in list order.
+     */
+    public List<Task> deleteTasks(int[] indices) {
+        lock.writeLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            for (int i = 0; i < indices.length; i++) {
+                assert i == 0 || indices[i] > indices[i - 1] : "TaskList: indices should be ascending and distinct";
+                Objects.checkIndex(indices[i], snapshot.size());
+            }
+            List<Task> removedTasks = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                Task task = snapshot.get(index);
+                removedTasks.add(task);
+                unindexTask(task, ordinals[index]);
+                releaseDescription(task);
+            }
+            int kept = indices.length == 0 ? snapshot.size() : indices[0];
+            int next = 0;
+            for (int i = kept; i < snapshot.size(); i++) {
+                if (next < indices.length && indices[next] == i) {
+                    next++;
+                } else {
+                    ordinals[kept++] = ordinals[i];
+                }
+            }
+            current = snapshot.withoutTasks(indices);
+            return removedTasks;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Puts tasks back into the list at the given positions, as when undoing a
+     * delete.
+     *
+     * @param indices The positions the tasks will have once inserted, in
+     *                ascending order and without repeats.
+     * @param tasks   The tasks to insert, in the same order.
+     */
+    public void insertTasks(int[] indices, List<Task> tasks) {
+        assert indices.length == tasks.size() : "TaskList: every inserted task should have a position";
+        lock.writeLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            int newSize = snapshot.size() + indices.length;
+            for (int i = 0; i < indices.length; i++) {
+                assert i == 0 || indices[i] > indices[i - 1] : "TaskList: indices should be ascending and distinct";
+                Objects.checkIndex(indices[i], newSize);
+            }
+            // Open gaps for the inserted tasks by moving the ordinals behind
+            // them up in place, from the back, so the ordinals of the tasks
+            // in front of the first gap are not touched
+            ensureOrdinalCapacity(newSize);
+            int from = snapshot.size() - 1;
+            int next = indices.length - 1;
+            for (int position = newSize - 1; next >= 0; position--) {
+                if (indices[next] == position) {
+                    next--;
+                } else {
+                    ordinals[position] = ordinals[from--];
+                }
+            }
+            boolean hasRoom = true;
+            next = 0;
+            while (next < indices.length) {
+                // Spread a run of inserted tasks evenly over the gap between
+                // the ordinals on either side of it
+                int start = indices[next];
+                int runLength = 1;
+                while (next + runLength < indices.length && indices[next + runLength] == start + runLength) {
+                    runLength++;
+                }
+                long lower = start == 0 ? MIN_ORDINAL : ordinals[start - 1];
+                long upper = start + runLength < newSize ? ordinals[start + runLength] : nextOrdinal;
+                long step = (upper - lower) / (runLength + 1);
+                hasRoom &= step > 0;
+                for (int j = 1; j <= runLength; j++) {
+                    ordinals[start + j - 1] = lower + step * j;
+                }
+                next += runLength;
+            }
+            for (Task task : tasks) {
+                shareDescription(task);
+            }
+            current = snapshot.withTasks(indices, tasks);
+            if (!hasRoom) {
+                renumber();
+                return;
+            }
+            for (int i = 0; i < indices.length; i++) {
+                indexTask(tasks.get(i), ordinals[indices[i]]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the task at the given index as done or not done.
+     *
+     * @param index  The index of the task.
+     * @param isDone The new status.
+     */
+    public void setDone(int index, boolean isDone) {
+        lock.writeLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            snapshot.setDone(index, isDone);
+            // Published again, so that threads taking the list afterwards
+            // also see a status kept in a task store's plain arrays
+            current = snapshot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives every task a fresh ordinal and rebuilds the indexes and duplicate
+     * counts, for when there is no gap left to insert a task into.
+     */
+    private void renumber() {
+        taskCounts.clear();
+        keywordIndex = new KeywordIndex();
+        dateIndex = new DateIndex();
+        nextOrdinal = 0;
+        TaskSnapshot snapshot = current;
+        for (int i = 0; i < snapshot.size(); i++) {
+            ordinals[i] = takeNextOrdinal();
+            indexTask(snapshot.get(i), ordinals[i]);
+        }
+    }
+
+    private void ensureOrdinalCapacity(int capacity) {
+        if (capacity > ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(capacity, ordinals.length * 2));
+        }
+    }
+
+    private long takeNextOrdinal() {
+        long ordinal = nextOrdinal;
+        nextOrdinal += ORDINAL_STRIDE;
+        return ordinal;
+    }
+
+    /**
+     * Swaps the task's description for the copy shared by the other tasks
+     * with it. Threads reading an old snapshot that holds the task may see
+     * either string, but the two are equal.
+     */
+    private void shareDescription(Task task) {
+        if (!isStoreBacked()) {
+            task.description = descriptions.acquire(task.description);
+        }
+    }
+
+    private void releaseDescription(Task task) {
+        if (!isStoreBacked()) {
+            descriptions.release(task.description);
+        }
+    }
+
+    private void indexTask(Task task, long ordinal) {
+        if (!isStoreBacked()) {
+            taskCounts.merge(task, 1, Integer::sum);
+        }
+        keywordIndex.add(task, ordinal);
+        dateIndex.add(task, ordinal);
+    }
+
+    private void unindexTask(Task task, long ordinal) {
+        if (!isStoreBacked()) {
+            taskCounts.computeIfPresent(task, (key, count) -> count > 1 ? count - 1 : null);
+        }
+        keywordIndex.remove(task, ordinal);
+        dateIndex.remove(task, ordinal);
+    }
+
+    private boolean isStoreBacked() {
+        return current instanceof TaskStore;
     }
 
     /**
@@ -50,7 +489,7 @@ public class TaskList {
      * @return The task at the specified index.
      */
     public Task getTask(int index) {
-        return tasks.get(index);
+        return current.get(index);
     }
 
     /**
@@ -59,30 +498,189 @@ public class TaskList {
      * @return The size of the task list.
      */
     public int size() {
-        return tasks.size();
+        return current.size();
     }
 
     /**
-     * Returns a list of tasks that contain the keyword in their description.
+     * Returns the tasks with a description word starting with every word of
+     * the query. Groups of words separated by {@code /or} are alternatives.
+     * Results are looked up in the keyword index and returned in list order.
      *
-     * @param keyword The keyword to search for.
+     * @param keyword The words to search for.
      * @return A list of matching tasks.
      */
     public ArrayList<Task> findTasks(String keyword) {
-        return tasks.stream()
-                .filter(task -> task.toString().contains(keyword))
-                .collect(java.util.stream.Collectors.toCollection(ArrayList::new));
+        lock.readLock().lock();
+        try {
+            return toTasks(keywordIndex.search(keyword));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Returns the underlying list of tasks.
+     * Returns the positions of the tasks that {@link #findTasks} would return
+     * for the same query.
      *
-     * @return The list of tasks.
+     * @param keyword The words to search for.
+     * @return The zero-based indices of the matching tasks, in ascending order.
+     */
+    public int[] findTaskIndices(String keyword) {
+        lock.readLock().lock();
+        try {
+            return toIndices(keywordIndex.search(keyword));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the positions of the tasks with the given ordinals. Callers
+     * hold the read or write lock.
      */
-    public ArrayList<Task> getAllTasks() {
+    private int[] toIndices(long[] matches) {
+        int size = current.size();
+        int[] indices = new int[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            // Ordinals increase along the list, so a task's position is
+            // where its ordinal sorts among them
+            indices[i] = Arrays.binarySearch(ordinals, 0, size, matches[i]);
+            assert indices[i] >= 0 : "TaskList: every indexed task should be in the list";
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the tasks with the given ordinals, in the same order. Callers
+     * hold the read or write lock.
+     */
+    private ArrayList<Task> toTasks(long[] matches) {
+        TaskSnapshot snapshot = current;
+        int[] indices = toIndices(matches);
+        ArrayList<Task> tasks = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            tasks.add(snapshot.get(index));
+        }
         return tasks;
     }
 
+    /**
+     * Returns the deadlines due on or before the given date, ordered by due
+     * date.
+     *
+     * @param date The last due date to include.
+     * @return A list of matching deadlines.
+     */
+    public ArrayList<Task> findDueBy(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return toTasks(dateIndex.findDueBy(date));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the deadlines due within, and the events overlapping, the given
+     * inclusive date range, ordered by due or start date.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return A list of matching deadlines and events.
+     */
+    public ArrayList<Task> findBetween(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return toTasks(dateIndex.findBetween(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the tasks in the list.
+     * <p>
+     * The snapshot is immutable and does not change when tasks are later added
+     * or deleted, so it can be read or saved on another thread without
+     * copying. Tasks marked or unmarked afterwards show their new status,
+     * except in a snapshot of a {@link TaskStore} that a later delete or
+     * insert has since copied.
+     *
+     * @return The list of tasks.
+     */
+    public List<Task> getAllTasks() {
+        return current;
+    }
+
+    /**
+     * Checks whether a list is a snapshot returned by {@link #getAllTasks},
+     * and so will never change.
+     *
+     * @param tasks The list to check.
+     * @return True if the list is a task list snapshot, false otherwise.
+     */
+    static boolean isSnapshot(List<Task> tasks) {
+        return tasks instanceof TaskSnapshot;
+    }
+
+    /**
+     * Returns the tasks in the list in the given order.
+     * <p>
+     * The order is remembered, so listing again after nothing or only appends
+     * and deletes of the last task have happened does not sort the whole list
+     * again: an unchanged list reuses the order as it is, appended tasks are
+     * sorted on their own and merged in, and a deleted last task is just
+     * dropped from it. Any other change sorts the whole list on the next call.
+     * Orders by status are never remembered, since marking a task changes them
+     * and they take only one pass to work out anyway.
+     *
+     * @param sortOrder The order to show the tasks in.
+     * @return The current tasks, in that order.
+     */
+    public SortedView getSortedView(SortOrder sortOrder) {
+        TaskSnapshot snapshot = current;
+        int size = snapshot.size();
+        if (sortOrder.dependsOnStatus()) {
+            return new SortedView(snapshot, sortOrder.sort(snapshot, 0, size));
+        }
+        synchronized (sortedOrders) {
+            SortedOrder cached = sortedOrders.get(sortOrder);
+            int[] order;
+            if (cached == null || !snapshot.sharesStorageWith(cached.snapshot)) {
+                order = sortOrder.sort(snapshot, 0, size);
+            } else if (cached.snapshot.size() < size) {
+                // Slots below the cached size are unchanged while the storage is
+                int[] appended = sortOrder.sort(snapshot, cached.snapshot.size(), size);
+                order = sortOrder.merge(snapshot, cached.order, appended);
+            } else if (cached.snapshot.size() > size) {
+                order = Arrays.stream(cached.order).filter(position -> position < size).toArray();
+            } else {
+                order = cached.order;
+            }
+            sortedOrders.put(sortOrder, new SortedOrder(snapshot, order));
+            return new SortedView(snapshot, order);
+        }
+    }
+
+    /**
+     * Returns the pool that shares descriptions between the tasks in the
+     * list, for reporting what it saves.
+     *
+     * @return The description pool.
+     */
+    public DescriptionPool getDescriptionPool() {
+        return descriptions;
+    }
+
+    /**
+     * Returns the history of changes to the list that can be undone.
+     *
+     * @return The history.
+     */
+    public History getHistory() {
+        return history;
+    }
+
     /**
      * Checks if the task list contains a duplicate of the given task.
      *
@@ -90,6 +688,26 @@ public class TaskList {
      * @return True if a duplicate exists, false otherwise.
      */
     public boolean hasDuplicate(Task task) {
-        return tasks.contains(task);
+        lock.readLock().lock();
+        try {
+            TaskSnapshot snapshot = current;
+            if (!(snapshot instanceof TaskStore)) {
+                return taskCounts.containsKey(task);
+            }
+            // Any duplicate has all the task's words, so only the tasks the
+            // keyword index finds for them need comparing
+            List<String> words = KeywordIndex.tokenize(task.description);
+            if (words.isEmpty()) {
+                return snapshot.contains(task);
+            }
+            for (int index : toIndices(keywordIndex.searchWords(words))) {
+                if (snapshot.get(index).equals(task)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 }
@@ -0,0 +1,81 @@
+package goldexperiencerequiem;
+
+import java.util.BitSet;
+
+/**
+ * The tasks a bulk command applies to: either ranges of task numbers, such
+ * as {@code 3,7,9-20}, or the tasks matching a search, as in
+ * {@code where find report}. Which tasks that is depends on the list at the
+ * time, so the selection is only resolved when the command runs.
+ */
+public class TaskSelection {
+    private static final String ERROR_OUT_OF_BOUNDS = "Task index out of bounds.";
+    private static final String ERROR_NO_MATCHES = "No tasks match that search.";
+
+    /** Zero-based, inclusive bounds of each range; null for a search. */
+    private final int[] starts;
+    private final int[] ends;
+
+    /** The search query; null for ranges. */
+    private final String query;
+
+    private TaskSelection(int[] starts, int[] ends, String query) {
+        this.starts = starts;
+        this.ends = ends;
+        this.query = query;
+    }
+
+    /**
+     * Creates a selection of ranges of tasks. Ranges may overlap and come in
+     * any order.
+     *
+     * @param starts Zero-based index of the first task of each range.
+     * @param ends   Zero-based index of the last task of each range.
+     * @return The selection.
+     */
+    public static TaskSelection ofRanges(int[] starts, int[] ends) {
+        assert starts.length == ends.length : "TaskSelection: every range should have a start and an end";
+        assert starts.length > 0 : "TaskSelection: there should be at least one range";
+        return new TaskSelection(starts, ends, null);
+    }
+
+    /**
+     * Creates a selection of the tasks matching a search, as for the find
+     * command.
+     *
+     * @param query The search query.
+     * @return The selection.
+     */
+    public static TaskSelection matching(String query) {
+        assert query != null && !query.isBlank() : "TaskSelection: query should not be blank";
+        return new TaskSelection(null, null, query);
+    }
+
+    /**
+     * Works out which tasks in the list are selected.
+     *
+     * @param tasks The task list.
+     * @return The zero-based indices of the selected tasks, in ascending order
+     *         and without repeats.
+     * @throws RequiemException If a range runs past the end of the list, or a
+     *                          search matches nothing.
+     */
+    public int[] resolve(TaskList tasks) throws RequiemException {
+        if (query != null) {
+            int[] found = tasks.findTaskIndices(query);
+            if (found.length == 0) {
+                throw new RequiemException(ERROR_NO_MATCHES);
+            }
+            return found;
+        }
+        int size = tasks.size();
+        BitSet selected = new BitSet(size);
+        for (int i = 0; i < starts.length; i++) {
+            if (ends[i] >= size) {
+                throw new RequiemException(ERROR_OUT_OF_BOUNDS);
+            }
+            selected.set(starts[i], ends[i] + 1);
+        }
+        return selected.stream().toArray();
+    }
+}
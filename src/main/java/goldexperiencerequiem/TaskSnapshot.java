@@ -0,0 +1,72 @@
+package goldexperiencerequiem;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of the tasks in a {@link TaskList} at one point in time.
+ * <p>
+ * Writers never change a snapshot's tasks or order. They derive the next
+ * snapshot from the current one and publish it, so readers can hold on to a
+ * snapshot for as long as they like without locking. Only the done status of
+ * a task may be seen to change. Each kind of snapshot decides how much of its
+ * storage a derived snapshot can share.
+ */
+abstract class TaskSnapshot extends AbstractList<Task> implements RandomAccess {
+
+    /**
+     * Returns a snapshot with the task appended.
+     *
+     * @param task The task to append.
+     * @return The longer snapshot.
+     */
+    abstract TaskSnapshot withTask(Task task);
+
+    /**
+     * Returns a snapshot without the task at the given position.
+     *
+     * @param index The position of the task to drop.
+     * @return The shorter snapshot.
+     */
+    abstract TaskSnapshot withoutTask(int index);
+
+    /**
+     * Returns a snapshot without the tasks at the given positions.
+     *
+     * @param indices The positions of the tasks to drop, in ascending order
+     *                and without repeats.
+     * @return The shorter snapshot.
+     */
+    abstract TaskSnapshot withoutTasks(int[] indices);
+
+    /**
+     * Returns a snapshot with tasks inserted so that they end up at the given
+     * positions.
+     *
+     * @param indices The positions the tasks will have, in ascending order
+     *                and without repeats.
+     * @param tasks   The tasks to insert, in the same order.
+     * @return The longer snapshot.
+     */
+    abstract TaskSnapshot withTasks(int[] indices, List<Task> tasks);
+
+    /**
+     * Marks the task at the given position as done or not done. Every
+     * snapshot that shares the task's storage sees the new status.
+     *
+     * @param index  The position of the task.
+     * @param isDone The new status.
+     */
+    abstract void setDone(int index, boolean isDone);
+
+    /**
+     * Checks whether this snapshot holds an earlier one's tasks in the same
+     * storage, so that positions below the earlier size hold the same tasks
+     * in both.
+     *
+     * @param earlier A snapshot this one may have been derived from.
+     * @return True if the earlier snapshot's tasks are unchanged in this one.
+     */
+    abstract boolean sharesStorageWith(TaskSnapshot earlier);
+}
@@ -0,0 +1,361 @@
+package goldexperiencerequiem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Holds tasks in parallel primitive arrays instead of as objects, as the
+ * opt-in backing store of a {@link TaskList}.
+ * <p>
+ * Each task takes a type byte, a bit of a shared done bitset, two epoch-day
+ * ints and an offset into one UTF-8 byte arena that holds every description
+ * back to back. That is about 13 bytes per task plus its description, against
+ * a task object, a description string and up to two {@link LocalDate} objects
+ * when tasks are kept as objects.
+ * <p>
+ * Tasks are only turned back into {@link Todo}, {@link Deadline} and
+ * {@link Event} objects when they are read. Each read builds a new object that
+ * is not tied to the store, so marking it does not change the store; use
+ * {@link #setDone} instead.
+ * <p>
+ * Like the task list's other snapshots, a store never changes once built,
+ * except for done statuses. Appending writes the next row of the arrays in
+ * place when no other store has written it yet, and shares the arrays; any
+ * other change copies the rows into new arrays. A status set after such a
+ * copy is only seen by the stores sharing the new arrays.
+ */
+final class TaskStore extends TaskSnapshot {
+    private static final byte TODO_TYPE = 0;
+    private static final byte DEADLINE_TYPE = 1;
+    private static final byte EVENT_TYPE = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_CAPACITY = 256;
+
+    /** Stored in the date columns of tasks that do not use them. */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final Columns columns;
+    private final int size;
+
+    /**
+     * The arrays holding the rows of one or more stores. Rows are only ever
+     * written once, at the end, so every store over the arrays sees the same
+     * rows below its size.
+     */
+    private static final class Columns {
+        private final byte[] types;
+        private final long[] doneBits;
+
+        /** The by date of a deadline, or the start date of an event. */
+        private final int[] firstDays;
+
+        /** The end date of an event. */
+        private final int[] secondDays;
+
+        /**
+         * Where each description ends in {@link #arena}. A description starts
+         * where the one before it ends, or at 0 for the first.
+         */
+        private final int[] descriptionEnds;
+        private final byte[] arena;
+
+        /** Rows written so far; only a store of exactly this size may append in place. */
+        private int rowCount = 0;
+
+        Columns(int capacity, int arenaCapacity) {
+            types = new byte[capacity];
+            doneBits = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+            firstDays = new int[capacity];
+            secondDays = new int[capacity];
+            descriptionEnds = new int[capacity];
+            arena = new byte[arenaCapacity];
+        }
+
+        int descriptionStart(int row) {
+            return row == 0 ? 0 : descriptionEnds[row - 1];
+        }
+
+        boolean hasRoom(int descriptionLength) {
+            return rowCount < types.length && descriptionStart(rowCount) + descriptionLength <= arena.length;
+        }
+
+        boolean isDone(int row) {
+            return (doneBits[row / Long.SIZE] & (1L << row)) != 0;
+        }
+
+        void setDone(int row, boolean isDone) {
+            if (isDone) {
+                doneBits[row / Long.SIZE] |= 1L << row;
+            } else {
+                doneBits[row / Long.SIZE] &= ~(1L << row);
+            }
+        }
+
+        /**
+         * Writes a task into the next row.
+         */
+        void appendTask(Task task, byte[] description) {
+            int row = rowCount;
+            if (task instanceof Deadline) {
+                types[row] = DEADLINE_TYPE;
+                firstDays[row] = (int) ((Deadline) task).by.toEpochDay();
+                secondDays[row] = NO_DATE;
+            } else if (task instanceof Event) {
+                Event event = (Event) task;
+                types[row] = EVENT_TYPE;
+                firstDays[row] = (int) event.from.toEpochDay();
+                secondDays[row] = (int) event.to.toEpochDay();
+            } else {
+                types[row] = TODO_TYPE;
+                firstDays[row] = NO_DATE;
+                secondDays[row] = NO_DATE;
+            }
+            int start = descriptionStart(row);
+            System.arraycopy(description, 0, arena, start, description.length);
+            descriptionEnds[row] = start + description.length;
+            setDone(row, task.isDone);
+            rowCount++;
+        }
+
+        /**
+         * Copies rows {@code from} to {@code to}, exclusive, of another set of
+         * columns into the next rows of these.
+         */
+        void appendRows(Columns source, int from, int to) {
+            int count = to - from;
+            if (count == 0) {
+                return;
+            }
+            System.arraycopy(source.types, from, types, rowCount, count);
+            System.arraycopy(source.firstDays, from, firstDays, rowCount, count);
+            System.arraycopy(source.secondDays, from, secondDays, rowCount, count);
+            int sourceStart = source.descriptionStart(from);
+            int start = descriptionStart(rowCount);
+            System.arraycopy(source.arena, sourceStart, arena, start, source.descriptionEnds[to - 1] - sourceStart);
+            int shift = start - sourceStart;
+            for (int i = 0; i < count; i++) {
+                descriptionEnds[rowCount + i] = source.descriptionEnds[from + i] + shift;
+                setDone(rowCount + i, source.isDone(from + i));
+            }
+            rowCount += count;
+        }
+    }
+
+    /**
+     * Creates an empty store.
+     */
+    public TaskStore() {
+        this(new Columns(INITIAL_CAPACITY, INITIAL_ARENA_CAPACITY), 0);
+    }
+
+    /**
+     * Creates a store holding the given tasks, in order.
+     *
+     * @param tasks The tasks to store; todos, deadlines and events.
+     */
+    public TaskStore(List<Task> tasks) {
+        this(fill(tasks), tasks.size());
+    }
+
+    private TaskStore(Columns columns, int size) {
+        this.columns = columns;
+        this.size = size;
+    }
+
+    private static Columns fill(List<Task> tasks) {
+        byte[][] descriptions = new byte[tasks.size()][];
+        int arenaSize = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            descriptions[i] = encode(tasks.get(i));
+            arenaSize += descriptions[i].length;
+        }
+        Columns columns = new Columns(Math.max(tasks.size(), INITIAL_CAPACITY),
+                Math.max(arenaSize, INITIAL_ARENA_CAPACITY));
+        for (int i = 0; i < tasks.size(); i++) {
+            columns.appendTask(tasks.get(i), descriptions[i]);
+        }
+        return columns;
+    }
+
+    /**
+     * Returns the description of a task as it is kept in the arena, after
+     * checking that the store can hold the task.
+     */
+    private static byte[] encode(Task task) {
+        if (!(task instanceof Todo || task instanceof Deadline || task instanceof Event)) {
+            throw new IllegalArgumentException("Cannot store a " + task.getClass().getSimpleName());
+        }
+        return task.description.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns new columns holding this store's rows, with room for at least
+     * the given number of rows and description bytes. The capacity grows by
+     * half, as an {@code ArrayList}'s does.
+     */
+    private Columns copyRows(int minCapacity, int minArenaCapacity) {
+        int capacity = Math.max(minCapacity, columns.types.length + (columns.types.length >> 1));
+        int arenaCapacity = Math.max(minArenaCapacity, columns.arena.length + (columns.arena.length >> 1));
+        Columns copy = new Columns(capacity, arenaCapacity);
+        copy.appendRows(columns, 0, size);
+        return copy;
+    }
+
+    @Override
+    TaskStore withTask(Task task) {
+        byte[] description = encode(task);
+        Columns target = columns;
+        if (size != columns.rowCount || !columns.hasRoom(description.length)) {
+            target = copyRows(size + 1, getDescriptionBytes() + description.length);
+        }
+        target.appendTask(task, description);
+        return new TaskStore(target, size + 1);
+    }
+
+    @Override
+    TaskStore withoutTask(int index) {
+        checkIndex(index);
+        if (index == size - 1) {
+            // The row stays written, so the next append copies rather than
+            // overwriting what this store's predecessor can still see
+            return new TaskStore(columns, size - 1);
+        }
+        return withoutTasks(new int[] {index});
+    }
+
+    /**
+     * Returns a store without the given tasks, moving each remaining task
+     * and its description once.
+     */
+    @Override
+    TaskStore withoutTasks(int[] indices) {
+        for (int i = 0; i < indices.length; i++) {
+            assert i == 0 || indices[i] > indices[i - 1] : "TaskStore: indices should be ascending and distinct";
+            checkIndex(indices[i]);
+        }
+        Columns target = new Columns(columns.types.length, columns.arena.length);
+        int from = 0;
+        for (int index : indices) {
+            target.appendRows(columns, from, index);
+            from = index + 1;
+        }
+        target.appendRows(columns, from, size);
+        return new TaskStore(target, target.rowCount);
+    }
+
+    @Override
+    TaskStore withTasks(int[] indices, List<Task> tasks) {
+        assert indices.length == tasks.size() : "TaskStore: every inserted task should have a position";
+        int newSize = size + indices.length;
+        byte[][] descriptions = new byte[tasks.size()][];
+        int arenaSize = getDescriptionBytes();
+        for (int i = 0; i < indices.length; i++) {
+            assert i == 0 || indices[i] > indices[i - 1] : "TaskStore: indices should be ascending and distinct";
+            if (indices[i] < 0 || indices[i] >= newSize) {
+                throw new IndexOutOfBoundsException("Index " + indices[i] + " out of bounds for length " + newSize);
+            }
+            descriptions[i] = encode(tasks.get(i));
+            arenaSize += descriptions[i].length;
+        }
+        Columns target = new Columns(Math.max(newSize, columns.types.length), Math.max(arenaSize, columns.arena.length));
+        int from = 0;
+        for (int i = 0; i < indices.length; i++) {
+            // Rows of this store that go before the next inserted task
+            int until = from + indices[i] - target.rowCount;
+            target.appendRows(columns, from, until);
+            target.appendTask(tasks.get(i), descriptions[i]);
+            from = until;
+        }
+        target.appendRows(columns, from, size);
+        return new TaskStore(target, newSize);
+    }
+
+    @Override
+    boolean sharesStorageWith(TaskSnapshot earlier) {
+        return earlier instanceof TaskStore && ((TaskStore) earlier).columns == columns;
+    }
+
+    /**
+     * Builds a task object from the stored columns.
+     *
+     * @param index The index of the task.
+     * @return A new task with the stored type, status, dates and description.
+     */
+    @Override
+    public Task get(int index) {
+        String description = getDescription(index);
+        Task task;
+        switch (columns.types[index]) {
+            case DEADLINE_TYPE:
+                task = new Deadline(description, LocalDate.ofEpochDay(columns.firstDays[index]));
+                break;
+            case EVENT_TYPE:
+                task = new Event(description, LocalDate.ofEpochDay(columns.firstDays[index]),
+                        LocalDate.ofEpochDay(columns.secondDays[index]));
+                break;
+            default:
+                task = new Todo(description);
+                break;
+        }
+        if (columns.isDone(index)) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    /**
+     * Returns the description of a task without building the task.
+     *
+     * @param index The index of the task.
+     * @return The description.
+     */
+    public String getDescription(int index) {
+        checkIndex(index);
+        int start = columns.descriptionStart(index);
+        return new String(columns.arena, start, columns.descriptionEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns whether a task is done without building the task.
+     *
+     * @param index The index of the task.
+     * @return True if the task is marked as done.
+     */
+    public boolean isDone(int index) {
+        checkIndex(index);
+        return columns.isDone(index);
+    }
+
+    /**
+     * Marks a task in the store as done or not done.
+     *
+     * @param index  The index of the task.
+     * @param isDone The new status.
+     */
+    @Override
+    public void setDone(int index, boolean isDone) {
+        checkIndex(index);
+        columns.setDone(index, isDone);
+    }
+
+    /**
+     * Returns the number of bytes taken by descriptions in the arena.
+     *
+     * @return The total UTF-8 length of all descriptions.
+     */
+    public int getDescriptionBytes() {
+        return columns.descriptionStart(size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
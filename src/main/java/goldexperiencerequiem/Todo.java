@@ -18,23 +18,25 @@ public class Todo extends Task {
      }
 
      /**
-      * Returns the string representation of the todo task.
+      * Builds the string representation of the todo task.
       *
+      * @param isMarkedDone The done status to render.
       * @return The todo task icon, status icon, and description.
       */
      @Override
-     public String toString() {
-          return "[" + TODO_TYPE_ICON + "]" + super.toString();
+     protected String renderString(boolean isMarkedDone) {
+          return "[" + TODO_TYPE_ICON + "]" + super.renderString(isMarkedDone);
      }
 
      /**
-      * Returns the file-friendly string representation of the todo task.
+      * Builds the file-friendly string representation of the todo task.
       *
+      * @param isMarkedDone The done status to render.
       * @return File format string.
       */
      @Override
-     public String toFileFormat() {
-          return TODO_TYPE_ICON + FILE_DELIMITER + super.toFileFormat();
+     protected String renderFileFormat(boolean isMarkedDone) {
+          return TODO_TYPE_ICON + FILE_DELIMITER + super.renderFileFormat(isMarkedDone);
      }
 
      /**
@@ -1,6 +1,12 @@
 package goldexperiencerequiem;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -13,6 +19,9 @@ import java.util.Scanner;
  * <li><b>GUI mode</b>: buffers output internally so the GUI can display
  * it.</li>
  * </ul>
+ * In CLI mode, output goes through a buffer that is written out whenever the
+ * UI waits for input, so long listings are not printed one system call per
+ * line.
  */
 public class Ui {
     private static final String LINE_DIVIDER = "____________________________________________________________";
@@ -26,12 +35,32 @@ public class Ui {
     private static final String MESSAGE_TASK_LIST = " Here's what we got on the board:";
     private static final String MESSAGE_TASK_MARKED = " Good. That lead's closed:";
     private static final String MESSAGE_TASK_UNMARKED = " Re-opening that? Jesus, Rust. Fine:";
+    private static final String MESSAGE_TASKS_DELETED = " Tore out %d pages. One less stack of headaches.";
+    private static final String MESSAGE_TASKS_MARKED = " Good. That's %d leads closed.";
+    private static final String MESSAGE_TASKS_UNMARKED = " Re-opening %d of 'em? Jesus, Rust. Fine.";
+    private static final String MESSAGE_TASK_SCHEDULE = " Here's what's on the calendar:";
     private static final String MESSAGE_TASKS_COUNT = " We got %d loose ends left.";
+    private static final String MESSAGE_LIST_RANGE = " That's %d to %d of %d. Use list --offset <count> for the rest.";
+    private static final String MESSAGE_PAGE_RANGE = " That's %d to %d of %d. Use list <page> for the rest.";
+    private static final String MESSAGE_SORTED_LIST = " Here's the board, sorted by %s:";
+    private static final String MESSAGE_SORTED_RANGE =
+            " That's %d to %d of %d. Use list --sort %s --offset <count> for the rest.";
+    private static final String MESSAGE_EMPTY_PAGE = " Nothin' there. We only got %d on the board.";
+    private static final String MESSAGE_STATS = " Here's how the precinct's been runnin'. %d on the board right now.";
+    private static final String MESSAGE_NO_STATS = " Nobody's been keepin' count, Rust.";
+    private static final String MESSAGE_UNDONE = " Fine. Took back that %s.";
+    private static final String MESSAGE_REDONE = " Back on the record: that %s.";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int GUI_LIST_LIMIT = 1000;
 
+    /**
+     * Reads commands from {@code System.in}, or null for a UI that only
+     * writes output and gets its commands elsewhere.
+     */
     private final Scanner scanner;
 
     /**
-     * Stores output text when in GUI mode. In CLI mode, output is printed directly.
+     * Stores output text when in GUI mode. In CLI mode, output goes to {@link #output}.
      */
     private final StringBuilder buffer = new StringBuilder();
 
@@ -39,13 +68,33 @@ public class Ui {
      * Indicates whether the UI is in GUI mode. If true, output is stored in
      * {@link #buffer}.
      */
-    private boolean isGuiMode = false;
+    private volatile boolean isGuiMode = false;
+
+    /**
+     * Receives CLI output. Held back until {@link #flush()}, which happens
+     * before reading each command.
+     */
+    private volatile PrintWriter output;
 
     /**
      * Initializes the user interface in CLI mode by default.
      */
     public Ui() {
         this.scanner = new Scanner(System.in);
+        enableBufferedOutput(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Initializes a user interface that writes to the given writer and does
+     * not read from {@code System.in}, for sessions whose commands come from
+     * elsewhere, such as a server connection. {@link #readCommand()} cannot be
+     * used.
+     *
+     * @param writer The writer to send output to.
+     */
+    public Ui(Writer writer) {
+        this.scanner = null;
+        enableBufferedOutput(writer);
     }
 
     /**
@@ -58,6 +107,27 @@ public class Ui {
         isGuiMode = true;
     }
 
+    /**
+     * Sends CLI output to the given writer instead of {@code System.out}.
+     * Output only reaches the writer when the buffer fills up, before reading
+     * a command, or on {@link #flush()} and {@link #close()}.
+     *
+     * @param writer The writer to send output to.
+     */
+    public void enableBufferedOutput(Writer writer) {
+        if (output != null) {
+            output.flush();
+        }
+        output = new PrintWriter(new BufferedWriter(writer, OUTPUT_BUFFER_SIZE));
+    }
+
+    /**
+     * Writes out any CLI output held back in the buffer.
+     */
+    public void flush() {
+        output.flush();
+    }
+
     /**
      * Clears any previously buffered output.
      * <p>
@@ -79,7 +149,7 @@ public class Ui {
     /**
      * Outputs lines to the appropriate destination:
      * <ul>
-     * <li>CLI mode: prints to {@code System.out}</li>
+     * <li>CLI mode: writes to the buffered {@link #output}</li>
      * <li>GUI mode: appends to {@link #buffer}</li>
      * </ul>
      *
@@ -90,11 +160,30 @@ public class Ui {
             if (isGuiMode) {
                 buffer.append(line).append("\n");
             } else {
-                System.out.println(line);
+                output.println(line);
             }
         }
     }
 
+    /**
+     * Outputs one numbered line of a task listing. In GUI mode the line is
+     * appended to the buffer piece by piece, so listing a task whose string is
+     * already rendered does not build any intermediate strings.
+     *
+     * @param number The number shown before the task.
+     * @param task   The task to show.
+     */
+    private void printNumberedTask(int number, Task task) {
+        if (isGuiMode) {
+            buffer.append(' ').append(number).append('.').append(task.toString()).append('\n');
+        } else {
+            output.print(' ');
+            output.print(number);
+            output.print('.');
+            output.println(task.toString());
+        }
+    }
+
     /**
      * Displays the welcome message to the user.
      */
@@ -117,6 +206,8 @@ public class Ui {
      * @return The raw input string, trimmed.
      */
     public String readCommand() {
+        assert scanner != null : "Ui: this UI does not read commands";
+        flush();
         return scanner.nextLine().trim();
     }
 
@@ -129,6 +220,26 @@ public class Ui {
         printLine(ERROR_PREFIX + message);
     }
 
+    /**
+     * Displays a message about something that went wrong outside any command,
+     * such as a failed background save. Unlike other output it is written out
+     * straight away, after any output held back so far, so it stays in order
+     * however long the next command takes. In GUI mode, which has no terminal
+     * output of its own, it goes to {@code System.out}. Safe to call from any
+     * thread.
+     *
+     * @param message The message to show.
+     */
+    public void showWarning(String message) {
+        if (isGuiMode) {
+            System.out.println(message);
+            return;
+        }
+        PrintWriter writer = output;
+        writer.println(message);
+        writer.flush();
+    }
+
     /**
      * Displays a loading error message to the user.
      */
@@ -163,6 +274,17 @@ public class Ui {
         showTaskChange(MESSAGE_TASK_DELETED, task, totalTasks);
     }
 
+    /**
+     * Displays that several tasks have been deleted by one command.
+     *
+     * @param count      The number of tasks removed.
+     * @param totalTasks The total number of tasks after deletion.
+     */
+    public void showTasksDeleted(int count, int totalTasks) {
+        printLine(String.format(MESSAGE_TASKS_DELETED, count),
+                String.format(MESSAGE_TASKS_COUNT, totalTasks));
+    }
+
     /**
      * Helper to display task changes (add/delete).
      *
@@ -177,17 +299,117 @@ public class Ui {
     }
 
     /**
-     * Displays all tasks in the list.
+     * Displays all tasks in the list. In GUI mode, a very long list is cut off
+     * after its first {@value #GUI_LIST_LIMIT} tasks, so a huge board does not
+     * turn into one giant message.
      *
      * @param tasks The task list to display.
      */
     public void showTaskList(TaskList tasks) {
+        showTaskList(tasks, 0, isGuiMode ? GUI_LIST_LIMIT : tasks.size());
+    }
+
+    /**
+     * Displays a slice of the task list, numbered by position in the whole
+     * list, and says which part of the list is shown if it is not all of it.
+     *
+     * @param tasks  The task list to display.
+     * @param offset Number of tasks to skip from the start of the list.
+     * @param limit  Maximum number of tasks to display.
+     */
+    public void showTaskList(TaskList tasks, int offset, int limit) {
+        showTaskList(tasks, offset, limit, MESSAGE_LIST_RANGE);
+    }
+
+    /**
+     * Displays one page of the task list, like
+     * {@link #showTaskList(TaskList, int, int)}, but points to the other
+     * pages by number.
+     *
+     * @param tasks    The task list to display.
+     * @param offset   Number of tasks before the page.
+     * @param pageSize Number of tasks on each page.
+     */
+    public void showTaskPage(TaskList tasks, int offset, int pageSize) {
+        showTaskList(tasks, offset, pageSize, MESSAGE_PAGE_RANGE);
+    }
+
+    private void showTaskList(TaskList tasks, int offset, int limit, String rangeMessage) {
+        // Work from one snapshot so the slice stays consistent if another
+        // thread changes the list meanwhile
+        List<Task> snapshot = tasks.getAllTasks();
+        int size = snapshot.size();
+        int end = (int) Math.min(size, (long) offset + limit);
         printLine(MESSAGE_TASK_LIST);
-        for (int i = 0; i < tasks.size(); i++) {
-            printLine(" " + (i + 1) + "." + tasks.getTask(i));
+        if (offset >= size && size > 0) {
+            printLine(String.format(MESSAGE_EMPTY_PAGE, size));
+            return;
+        }
+        for (int i = offset; i < end; i++) {
+            printNumberedTask(i + 1, snapshot.get(i));
+        }
+        if (offset > 0 || end < size) {
+            printLine(String.format(rangeMessage, offset + 1, end, size));
+        }
+    }
+
+    /**
+     * Displays all tasks in a sorted view, cut off in GUI mode like
+     * {@link #showTaskList(TaskList)}.
+     *
+     * @param view      The sorted tasks to display.
+     * @param sortOrder The order the tasks are sorted in.
+     */
+    public void showSortedTaskList(SortedView view, SortOrder sortOrder) {
+        showSortedTaskList(view, sortOrder, 0, isGuiMode ? GUI_LIST_LIMIT : view.size());
+    }
+
+    /**
+     * Displays a slice of a sorted view. Each task is numbered by its position
+     * in the list, not in the view, so the numbers still work with mark and
+     * delete.
+     *
+     * @param view      The sorted tasks to display.
+     * @param sortOrder The order the tasks are sorted in.
+     * @param offset    Number of tasks to skip from the start of the view.
+     * @param limit     Maximum number of tasks to display.
+     */
+    public void showSortedTaskList(SortedView view, SortOrder sortOrder, int offset, int limit) {
+        int size = view.size();
+        int end = (int) Math.min(size, (long) offset + limit);
+        printLine(String.format(MESSAGE_SORTED_LIST, sortOrder.getName()));
+        if (offset >= size && size > 0) {
+            printLine(String.format(MESSAGE_EMPTY_PAGE, size));
+            return;
+        }
+        for (int rank = offset; rank < end; rank++) {
+            printNumberedTask(view.getIndex(rank) + 1, view.getTask(rank));
+        }
+        if (offset > 0 || end < size) {
+            printLine(String.format(MESSAGE_SORTED_RANGE, offset + 1, end, size, sortOrder.getName()));
+        }
+    }
+
+    /**
+     * Displays the performance summary kept since startup.
+     *
+     * @param taskCount The number of tasks currently in the list.
+     * @param summary   The summary lines, as given by {@link Metrics#getSummary()}.
+     */
+    public void showStats(int taskCount, List<String> summary) {
+        printLine(String.format(MESSAGE_STATS, taskCount));
+        for (String line : summary) {
+            printLine(line);
         }
     }
 
+    /**
+     * Displays that no performance summary is being kept.
+     */
+    public void showNoStats() {
+        printLine(MESSAGE_NO_STATS);
+    }
+
     /**
      * Displays that a task has been marked as done.
      *
@@ -206,6 +428,44 @@ public class Ui {
         printLine(MESSAGE_TASK_UNMARKED, "   " + task);
     }
 
+    /**
+     * Displays that several tasks have been marked as done by one command.
+     *
+     * @param count The number of tasks marked.
+     */
+    public void showTasksMarked(int count) {
+        printLine(String.format(MESSAGE_TASKS_MARKED, count));
+    }
+
+    /**
+     * Displays that several tasks have been marked as undone by one command.
+     *
+     * @param count The number of tasks unmarked.
+     */
+    public void showTasksUnmarked(int count) {
+        printLine(String.format(MESSAGE_TASKS_UNMARKED, count));
+    }
+
+    /**
+     * Displays that a change has been undone.
+     *
+     * @param change     A short description of the change.
+     * @param totalTasks The total number of tasks afterwards.
+     */
+    public void showUndone(String change, int totalTasks) {
+        printLine(String.format(MESSAGE_UNDONE, change), String.format(MESSAGE_TASKS_COUNT, totalTasks));
+    }
+
+    /**
+     * Displays that an undone change has been made again.
+     *
+     * @param change     A short description of the change.
+     * @param totalTasks The total number of tasks afterwards.
+     */
+    public void showRedone(String change, int totalTasks) {
+        printLine(String.format(MESSAGE_REDONE, change), String.format(MESSAGE_TASKS_COUNT, totalTasks));
+    }
+
     /**
      * Displays the matching tasks for a find command.
      *
@@ -214,7 +474,19 @@ public class Ui {
     public void showMatchingTasks(ArrayList<Task> matchingTasks) {
         printLine(" Here are the matching tasks in your list:");
         for (int i = 0; i < matchingTasks.size(); i++) {
-            printLine(" " + (i + 1) + "." + matchingTasks.get(i));
+            printNumberedTask(i + 1, matchingTasks.get(i));
+        }
+    }
+
+    /**
+     * Displays the deadlines and events found by a date query.
+     *
+     * @param scheduledTasks The tasks that fall within the queried dates.
+     */
+    public void showScheduledTasks(ArrayList<Task> scheduledTasks) {
+        printLine(MESSAGE_TASK_SCHEDULE);
+        for (int i = 0; i < scheduledTasks.size(); i++) {
+            printNumberedTask(i + 1, scheduledTasks.get(i));
         }
     }
 
@@ -227,20 +499,30 @@ public class Ui {
         printLine(" 1. todo <description> - Adds a todo task.");
         printLine(" 2. deadline <description> /by <date> - Adds a deadline task.");
         printLine(" 3. event <description> /from <date> /to <date> - Adds an event task.");
-        printLine(" 4. list - Lists all tasks.");
-        printLine(" 5. mark <index> - Marks a task as done.");
-        printLine(" 6. unmark <index> - Marks a task as not done.");
-        printLine(" 7. delete <index> - Deletes a task.");
-        printLine(" 8. find <keyword> - Finds tasks with the keyword.");
-        printLine(" 9. help - Shows this help message.");
-        printLine(" 10. bye - Exits the application.");
+        printLine(" 4. list [<page> | --limit <count> --offset <count> --sort <order>] - Lists all tasks, or some.");
+        printLine(" 5. mark <index>[,<from>-<to>...] | where find <keyword>... - Marks tasks as done.");
+        printLine(" 6. unmark <index>[,<from>-<to>...] | where find <keyword>... - Marks tasks as not done.");
+        printLine(" 7. delete <index>[,<from>-<to>...] | where find <keyword>... - Deletes tasks.");
+        printLine(" 8. find <keyword>... [/or <keyword>...] - Finds tasks with words starting with all the keywords.");
+        printLine(" 9. due <date> - Lists deadlines due on or before the date.");
+        printLine(" 10. between <date> <date> - Lists deadlines and events within the dates.");
+        printLine(" 11. sort [by] date|status|type|name - Lists all tasks in that order, keeping their numbers.");
+        printLine(" 12. undo - Takes back the last add, delete, mark or unmark.");
+        printLine(" 13. redo - Makes the last undone change again.");
+        printLine(" 14. stats - Shows command counts and timings since startup.");
+        printLine(" 15. help - Shows this help message.");
+        printLine(" 16. bye - Exits the application.");
         showLine();
     }
 
     /**
-     * Closes the scanner used for reading commands (CLI mode).
+     * Writes out any buffered CLI output and closes the scanner used for
+     * reading commands (CLI mode), if any.
      */
     public void close() {
-        scanner.close();
+        flush();
+        if (scanner != null) {
+            scanner.close();
+        }
     }
 }
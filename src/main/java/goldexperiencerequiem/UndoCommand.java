@@ -0,0 +1,32 @@
+package goldexperiencerequiem;
+
+/**
+ * Represents a command to take back the most recent change to the task list.
+ */
+public class UndoCommand extends Command {
+    private static final String ERROR_NOTHING_TO_UNDO = "Nothing to take back, Rust.";
+
+    /**
+     * Executes the undo command.
+     * Reverses the latest add, delete, mark or unmark that has not been undone
+     * yet, persists the reversal, and tells the user what was undone.
+     *
+     * @param tasks   The TaskList whose history is used.
+     * @param ui      The Ui object to interact with the user.
+     * @param storage The Storage object to persist the reversal.
+     * @throws RequiemException If there is nothing left to undo.
+     */
+    @Override
+    public void execute(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
+        String change = tasks.getHistory().undo(tasks, storage);
+        if (change == null) {
+            throw new RequiemException(ERROR_NOTHING_TO_UNDO);
+        }
+        ui.showUndone(change, tasks.size());
+    }
+
+    @Override
+    public boolean isExit() {
+        return false;
+    }
+}
@@ -5,6 +5,7 @@ package goldexperiencerequiem;
  */
 public class UnmarkCommand extends Command {
     private final int index;
+    private final TaskSelection selection;
 
     /**
      * Creates a new UnmarkCommand with the given index.
@@ -13,17 +14,53 @@ public class UnmarkCommand extends Command {
      */
     public UnmarkCommand(int index) {
         this.index = index;
+        this.selection = null;
+    }
+
+    /**
+     * Creates a new UnmarkCommand that marks every selected task as undone at
+     * once.
+     *
+     * @param selection The tasks to be marked as undone.
+     */
+    public UnmarkCommand(TaskSelection selection) {
+        this.index = -1;
+        this.selection = selection;
     }
 
     @Override
     public void execute(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
+        if (selection != null) {
+            unmarkAll(tasks, ui, storage);
+            return;
+        }
         if (index < 0 || index >= tasks.size()) {
             throw new RequiemException("Task index out of bounds.");
         }
-        Task task = tasks.getTask(index);
-        task.markAsUndone();
-        storage.save(tasks.getAllTasks());
-        ui.showTaskUnmarked(task);
+        boolean wasDone = tasks.getTask(index).isDone;
+        tasks.setDone(index, false);
+        storage.recordUnmark(tasks.getAllTasks(), index);
+        tasks.getHistory().recordStatusChange(new int[] {index}, new boolean[] {wasDone}, false);
+        ui.showTaskUnmarked(tasks.getTask(index));
+    }
+
+    /**
+     * Unmarks every selected task and records them all in a single write.
+     */
+    private void unmarkAll(TaskList tasks, Ui ui, Storage storage) throws RequiemException {
+        int[] indices = selection.resolve(tasks);
+        boolean[] wasDone = new boolean[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            wasDone[i] = tasks.getTask(indices[i]).isDone;
+            tasks.setDone(indices[i], false);
+        }
+        storage.recordUnmarks(tasks.getAllTasks(), indices);
+        tasks.getHistory().recordStatusChange(indices, wasDone, false);
+        if (indices.length == 1) {
+            ui.showTaskUnmarked(tasks.getTask(indices[0]));
+        } else {
+            ui.showTasksUnmarked(indices.length);
+        }
     }
 
     @Override
@@ -0,0 +1,198 @@
+package goldexperiencerequiem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs storage writes on a single background writer thread.
+ * <p>
+ * Callers queue writes and return immediately. The writer takes everything
+ * that has queued up, performs it in order, then commits the whole batch at
+ * once, so a burst of mutations costs one flush instead of one per mutation.
+ * Within a batch, a full save makes any earlier full save redundant, so only
+ * the last one is written.
+ * <p>
+ * If the writer thread dies, for instance of an {@link Error} thrown by a
+ * write, each later flush reports it and performs the queued writes on the
+ * caller's thread instead, so nothing waits on a thread that is gone.
+ */
+public class WriteBehindQueue {
+
+    /** How often a flush checks that the writer thread is still alive. */
+    private static final long LIVENESS_CHECK_MILLIS = 1000;
+    private static final String ERROR_WRITER_DIED = "writer thread stopped, writing on the caller instead";
+
+    /**
+     * A write to perform on the writer thread.
+     */
+    public interface Write {
+        /**
+         * Performs the write.
+         *
+         * @throws IOException If the write fails.
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * A queued write, or a barrier that completes once every write queued
+     * before it has been committed.
+     */
+    private static final class Entry {
+        private final Write write;
+        private final boolean isFullSave;
+        private final CompletableFuture<Void> barrier;
+
+        Entry(Write write, boolean isFullSave, CompletableFuture<Void> barrier) {
+            this.write = write;
+            this.isFullSave = isFullSave;
+            this.barrier = barrier;
+        }
+    }
+
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Write commit;
+    private final Consumer<Exception> errorHandler;
+    private final Thread writer;
+    private volatile boolean isClosed = false;
+
+    /**
+     * Creates the queue and starts its writer thread.
+     *
+     * @param threadName   Name of the writer thread.
+     * @param commit       Run once after each batch of writes, to make it durable.
+     * @param errorHandler Told about writes and commits that fail.
+     */
+    public WriteBehindQueue(String threadName, Write commit, Consumer<Exception> errorHandler) {
+        this.commit = commit;
+        this.errorHandler = errorHandler;
+        this.writer = new Thread(this::runWriter, threadName);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a write.
+     *
+     * @param write The write to perform.
+     */
+    public void submit(Write write) {
+        assert !isClosed : "WriteBehindQueue: submit should not be called after close";
+        queue.add(new Entry(write, false, null));
+    }
+
+    /**
+     * Queues a write that replaces everything written before it, such as
+     * rewriting the whole data file.
+     *
+     * @param write The write to perform.
+     */
+    public void submitFullSave(Write write) {
+        assert !isClosed : "WriteBehindQueue: submit should not be called after close";
+        queue.add(new Entry(write, true, null));
+    }
+
+    /**
+     * Blocks until every write queued so far has been performed and committed.
+     */
+    public void flush() {
+        if (isClosed || Thread.currentThread() == writer) {
+            return;
+        }
+        CompletableFuture<Void> barrier = new CompletableFuture<>();
+        queue.add(new Entry(null, false, barrier));
+        boolean isInterrupted = false;
+        while (!barrier.isDone()) {
+            if (!writer.isAlive()) {
+                runOnCaller();
+                break;
+            }
+            try {
+                barrier.get(LIVENESS_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // Check the writer again
+            } catch (InterruptedException e) {
+                // Keep waiting, like an uninterruptible join, and restore the
+                // flag once the writes are committed
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Performs and commits everything still queued on the calling thread,
+     * once the writer thread has died. Synchronized so that concurrent
+     * flushes keep the writes in order.
+     */
+    private synchronized void runOnCaller() {
+        errorHandler.accept(new IllegalStateException(ERROR_WRITER_DIED));
+        List<Entry> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        runBatch(batch);
+    }
+
+    /**
+     * Flushes every queued write and stops the writer thread.
+     */
+    public void close() {
+        flush();
+        isClosed = true;
+        writer.interrupt();
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>();
+        while (!isClosed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            runBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void runBatch(List<Entry> batch) {
+        int lastFullSave = -1;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).isFullSave) {
+                lastFullSave = i;
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            if (entry.write == null || (entry.isFullSave && i < lastFullSave)) {
+                continue;
+            }
+            try {
+                entry.write.run();
+            } catch (IOException | RuntimeException e) {
+                errorHandler.accept(e);
+            }
+        }
+        try {
+            commit.run();
+        } catch (IOException | RuntimeException e) {
+            errorHandler.accept(e);
+        }
+
+        for (Entry entry : batch) {
+            if (entry.barrier != null) {
+                entry.barrier.complete(null);
+            }
+        }
+    }
+}
@@ -4,7 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.StringWriter;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -99,6 +102,61 @@ public class CommandTest {
                 () -> command.execute(tasks, ui, storage));
     }
 
+    @Test
+    public void deleteCommand_indexList_deletesEverySelectedTask() throws RequiemException {
+        for (int i = 1; i <= 25; i++) {
+            tasks.addTask(new Todo("lead " + i));
+        }
+        Parser.parse("delete 3,7,9-20").execute(tasks, ui, storage);
+        assertEquals(11, tasks.size());
+        assertEquals("lead 8", tasks.getTask(5).description);
+        assertEquals("lead 21", tasks.getTask(6).description);
+        assertEquals(1, tasks.findTasks("21").size());
+        assertEquals(0, tasks.findTasks("9").size());
+    }
+
+    @Test
+    public void markCommand_whereFind_marksOnlyMatchingTasks() throws RequiemException {
+        tasks.addTask(new Todo("check the alibi"));
+        tasks.addTask(new Todo("dust for prints"));
+        tasks.addTask(new Todo("check the prints"));
+        Parser.parse("mark where find check").execute(tasks, ui, storage);
+        assertTrue(tasks.getTask(0).isDone);
+        assertFalse(tasks.getTask(1).isDone);
+        assertTrue(tasks.getTask(2).isDone);
+
+        Parser.parse("unmark where find prints").execute(tasks, ui, storage);
+        assertTrue(tasks.getTask(0).isDone);
+        assertFalse(tasks.getTask(2).isDone);
+    }
+
+    @Test
+    public void markCommand_rangePastEnd_throwsAndMarksNothing() throws RequiemException {
+        tasks.addTask(new Todo("check the alibi"));
+        tasks.addTask(new Todo("dust for prints"));
+        Command command = Parser.parse("mark 1-3");
+        org.junit.jupiter.api.Assertions.assertThrows(RequiemException.class,
+                () -> command.execute(tasks, ui, storage));
+        assertFalse(tasks.getTask(0).isDone);
+        assertFalse(tasks.getTask(1).isDone);
+    }
+
+    @Test
+    public void deleteCommand_bulkJournaled_writesOneRecord() throws Exception {
+        Path dataFile = tempDir.resolve("bulk.txt");
+        Storage journaled = new Storage(dataFile);
+        journaled.enableJournal();
+        for (int i = 1; i <= 10; i++) {
+            tasks.addTask(new Todo("lead " + i));
+        }
+        journaled.save(tasks.getAllTasks());
+
+        Parser.parse("delete 2-9").execute(tasks, ui, journaled);
+        journaled.close();
+        assertEquals(List.of("1 | D | 1-8"), Files.readAllLines(tempDir.resolve("bulk.txt.journal")));
+        assertEquals(2, new Storage(dataFile).load().size());
+    }
+
     @Test
     public void findCommand_execute_findsMatchingTasks() throws RequiemException {
         tasks.addTask(new Todo("read book"));
@@ -112,4 +170,77 @@ public class CommandTest {
         // executes.
         command.execute(tasks, ui, storage);
     }
+
+    @Test
+    public void listCommand_secondPage_showsOnlyThatPage() {
+        for (int i = 1; i <= 250; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        ui.enableGuiMode();
+        ListCommand.ofPage(2).execute(tasks, ui, storage);
+
+        String[] lines = ui.getBufferedOutput().split("\n");
+        assertEquals(ListCommand.PAGE_SIZE + 2, lines.length);
+        assertEquals(" 101.[T][ ] task 101", lines[1]);
+        assertEquals(" 200.[T][ ] task 200", lines[ListCommand.PAGE_SIZE]);
+        assertEquals(" That's 101 to 200 of 250. Use list <page> for the rest.", lines[lines.length - 1]);
+    }
+
+    @Test
+    public void listCommand_limitAndOffset_pointsToOffsetOption() {
+        for (int i = 1; i <= 4; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        ui.enableGuiMode();
+        new ListCommand(1, 1).execute(tasks, ui, storage);
+
+        String[] lines = ui.getBufferedOutput().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(" 2.[T][ ] task 2", lines[1]);
+        assertEquals(" That's 2 to 2 of 4. Use list --offset <count> for the rest.", lines[2]);
+    }
+
+    @Test
+    public void listCommand_guiModeHugeBoard_cutsOffLongList() {
+        for (int i = 1; i <= 1500; i++) {
+            tasks.addTask(new Todo("task " + i));
+        }
+        ui.enableGuiMode();
+        new ListCommand().execute(tasks, ui, storage);
+
+        String output = ui.getBufferedOutput();
+        assertTrue(output.contains(" 1000.[T][ ] task 1000"));
+        assertFalse(output.contains("task 1001"));
+        assertTrue(output.contains("1 to 1000 of 1500"));
+    }
+
+    @Test
+    public void listCommand_sortedSlice_showsListNumbers() {
+        tasks.addTask(new Todo("tail the suspect"));
+        tasks.addTask(new Todo("Canvass the street"));
+        tasks.addTask(new Todo("bag the evidence"));
+        ui.enableGuiMode();
+        new ListCommand(0, 2, SortOrder.NAME).execute(tasks, ui, storage);
+
+        String[] lines = ui.getBufferedOutput().split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("Here's the board, sorted by name:", lines[0]);
+        assertEquals(" 3.[T][ ] bag the evidence", lines[1]);
+        assertEquals(" 2.[T][ ] Canvass the street", lines[2]);
+        assertTrue(lines[3].contains("1 to 2 of 3"));
+    }
+
+    @Test
+    public void listCommand_warningAfterListing_writtenAfterHeldBackOutput() {
+        StringWriter written = new StringWriter();
+        ui.enableBufferedOutput(written);
+        tasks.addTask(new Todo("tail the suspect"));
+        new ListCommand().execute(tasks, ui, storage);
+        assertEquals("", written.toString());
+
+        ui.showWarning(" Error saving tasks: disk full");
+        String[] lines = written.toString().split(System.lineSeparator());
+        assertEquals(" 1.[T][ ] tail the suspect", lines[1]);
+        assertEquals(" Error saving tasks: disk full", lines[2]);
+    }
 }
@@ -0,0 +1,103 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConversationHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void add_withinCapacity_keepsEverythingInMemory() {
+        Path archive = tempDir.resolve("archive.txt");
+        ConversationHistory history = new ConversationHistory(archive, 8);
+        history.add(ChatMessage.fromUser("list"), ChatMessage.fromRequiem("Here's the board", false));
+
+        assertEquals(2, history.getMessages().size());
+        assertEquals(0, history.getArchivedCount());
+        history.close();
+        assertFalse(Files.exists(archive));
+    }
+
+    @Test
+    public void add_pastCapacity_archivesOldestInOneBatch() throws IOException {
+        Path archive = tempDir.resolve("data").resolve("archive.txt");
+        ConversationHistory history = new ConversationHistory(archive, 8);
+        for (int i = 0; i < 5; i++) {
+            history.add(ChatMessage.fromUser("todo " + i), ChatMessage.fromRequiem("line one\nline two", i == 4));
+        }
+
+        // 10 messages against a capacity of 8: 2 over, plus a quarter of the capacity
+        assertEquals(6, history.getMessages().size());
+        assertEquals(4, history.getArchivedCount());
+        assertEquals("todo 2", history.getMessages().get(0).getText());
+        assertTrue(history.getMessages().get(5).isError());
+
+        history.close();
+        List<String> lines = Files.readAllLines(archive);
+        assertEquals(List.of("U | todo 0", "R | line one\\nline two", "U | todo 1", "R | line one\\nline two"),
+                lines);
+    }
+
+    @Test
+    public void add_longSession_staysWithinCapacity() {
+        ConversationHistory history = new ConversationHistory(tempDir.resolve("archive.txt"), 100);
+        for (int i = 0; i < 5000; i++) {
+            history.add(ChatMessage.fromUser("find " + i), ChatMessage.fromRequiem("nothin'", false));
+            assertTrue(history.getMessages().size() <= 100);
+        }
+        assertEquals(10000, history.getArchivedCount() + history.getMessages().size());
+    }
+
+    @Test
+    public void replace_pendingMessage_keepsPosition() {
+        ConversationHistory history = new ConversationHistory(tempDir.resolve("archive.txt"), 8);
+        ChatMessage firstPending = ChatMessage.pending();
+        ChatMessage secondPending = ChatMessage.pending();
+        history.add(ChatMessage.fromUser("list"), firstPending);
+        history.add(ChatMessage.fromUser("todo read"), secondPending);
+
+        history.replace(firstPending, ChatMessage.fromRequiem("Here's the board", false));
+
+        assertEquals("Here's the board", history.getMessages().get(1).getText());
+        assertFalse(history.getMessages().get(1).isPending());
+        assertTrue(history.getMessages().get(3).isPending());
+    }
+
+    @Test
+    public void replace_archivedMessage_addsToEnd() {
+        ConversationHistory history = new ConversationHistory(tempDir.resolve("archive.txt"), 4);
+        ChatMessage pending = ChatMessage.pending();
+        history.add(ChatMessage.fromUser("list"), pending);
+        for (int i = 0; i < 2; i++) {
+            history.add(ChatMessage.fromUser("todo " + i), ChatMessage.fromRequiem("Got it", false));
+        }
+
+        history.replace(pending, ChatMessage.fromRequiem("Here's the board", false));
+
+        List<ChatMessage> messages = history.getMessages();
+        assertEquals("Here's the board", messages.get(messages.size() - 1).getText());
+    }
+
+    @Test
+    public void remove_pendingMessage_removesOnlyThatMessage() {
+        ConversationHistory history = new ConversationHistory(tempDir.resolve("archive.txt"), 8);
+        ChatMessage pending = ChatMessage.pending();
+        history.add(ChatMessage.fromUser("bye"), ChatMessage.pending(), ChatMessage.fromUser("list"), pending);
+
+        history.remove(pending);
+
+        assertEquals(3, history.getMessages().size());
+        assertTrue(history.getMessages().get(1).isPending());
+    }
+}
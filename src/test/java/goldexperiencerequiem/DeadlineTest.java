@@ -1,6 +1,7 @@
 package goldexperiencerequiem;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.time.LocalDate;
 
@@ -33,4 +34,19 @@ public class DeadlineTest {
         Deadline d2 = new Deadline("return book", LocalDate.parse("2023-10-16"));
         org.junit.jupiter.api.Assertions.assertNotEquals(d1, d2);
     }
+
+    @Test
+    public void toString_markedThenUnmarked_rendersCurrentStatus() {
+        Deadline deadline = new Deadline("return book", LocalDate.parse("2023-10-15"));
+        String notDone = deadline.toString();
+        assertSame(notDone, deadline.toString());
+
+        deadline.markAsDone();
+        assertEquals("[D][X] return book (by: Oct 15 2023)", deadline.toString());
+        assertEquals("D | 1 | return book | 2023-10-15", deadline.toFileFormat());
+
+        deadline.markAsUndone();
+        assertEquals(notDone, deadline.toString());
+        assertEquals("D | 0 | return book | 2023-10-15", deadline.toFileFormat());
+    }
 }
@@ -0,0 +1,45 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class DescriptionPoolTest {
+
+    @Test
+    public void acquire_equalDescriptions_returnsFirstAndCountsSaving() {
+        DescriptionPool pool = new DescriptionPool();
+        String first = new String("water the plants");
+        String second = new String("water the plants");
+        assertSame(first, pool.acquire(first));
+        assertSame(first, pool.acquire(second));
+        assertSame(first, pool.acquire(first));
+        assertEquals(3, pool.getUses());
+        assertEquals(2, pool.getSharedUses());
+        // 24-byte string plus a 16-byte array header and 16 Latin-1 chars
+        assertEquals(2 * 56, pool.getBytesSaved());
+    }
+
+    @Test
+    public void release_lastUse_forgetsDescription() {
+        DescriptionPool pool = new DescriptionPool();
+        String first = pool.acquire(new String("feed the cat"));
+        pool.acquire(new String("feed the cat"));
+        pool.release("feed the cat");
+        assertEquals(0, pool.getBytesSaved());
+        pool.release("feed the cat");
+        assertEquals(0, pool.getUses());
+
+        String later = new String("feed the cat");
+        assertSame(later, pool.acquire(later));
+        assertNotSame(first, later);
+    }
+
+    @Test
+    public void estimateBytes_latin1OrNot_countsCharsAtOneOrTwoBytes() {
+        assertEquals(24 + 32, DescriptionPool.estimateBytes("café au lait"));
+        assertEquals(24 + 40, DescriptionPool.estimateBytes("コーヒーを買う本日中に"));
+    }
+}
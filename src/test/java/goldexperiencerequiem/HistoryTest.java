@@ -0,0 +1,135 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataFile;
+    private TaskList tasks;
+    private Ui ui;
+    private Storage storage;
+
+    @BeforeEach
+    public void setUp() throws RequiemException {
+        dataFile = tempDir.resolve("history.txt");
+        tasks = new TaskList();
+        ui = new Ui();
+        storage = new Storage(dataFile);
+        storage.enableJournal();
+        for (int i = 1; i <= 6; i++) {
+            run("todo lead " + i);
+        }
+    }
+
+    private void run(String command) throws RequiemException {
+        Parser.parse(command).execute(tasks, ui, storage);
+    }
+
+    private String descriptions() {
+        StringBuilder text = new StringBuilder();
+        for (Task task : tasks.getAllTasks()) {
+            text.append(task.description.substring("lead ".length()));
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void undo_bulkDelete_restoresTasksInPlaceAndOnDisk() throws RequiemException {
+        run("delete 1,3-4,6");
+        assertEquals("25", descriptions());
+
+        run("undo");
+        assertEquals("123456", descriptions());
+        assertEquals(1, tasks.findTasks("3").size());
+        assertEquals(6, new Storage(dataFile).load().size());
+
+        run("redo");
+        assertEquals("25", descriptions());
+        assertEquals(2, new Storage(dataFile).load().size());
+    }
+
+    @Test
+    public void undo_markOverMixedStatuses_restoresEachStatus() throws RequiemException {
+        run("mark 2");
+        run("mark 1-3");
+        run("undo");
+        assertFalse(tasks.getTask(0).isDone);
+        assertTrue(tasks.getTask(1).isDone);
+        assertFalse(tasks.getTask(2).isDone);
+
+        ArrayList<Task> loaded = new Storage(dataFile).load();
+        assertEquals("[T][ ] lead 1", loaded.get(0).toString());
+        assertEquals("[T][X] lead 2", loaded.get(1).toString());
+    }
+
+    @Test
+    public void undo_onTaskStore_restoresStatusesAndDeletedTasks() throws RequiemException {
+        tasks.enableTaskStore();
+        run("mark 1-3");
+        run("delete 2,5");
+        run("undo");
+        assertEquals("123456", descriptions());
+        run("undo");
+        assertFalse(tasks.getTask(1).isDone);
+        run("undo");
+        assertEquals("12345", descriptions());
+        assertEquals(5, new Storage(dataFile).load().size());
+    }
+
+    @Test
+    public void undo_everyChange_emptiesListThenRunsOut() throws RequiemException {
+        run("delete 2");
+        run("unmark 1");
+        for (int i = 0; i < 8; i++) {
+            run("undo");
+        }
+        assertEquals(0, tasks.size());
+        RequiemException e = assertThrows(RequiemException.class, () -> run("undo"));
+        assertEquals("Nothing to take back, Rust.", e.getMessage());
+        assertEquals(0, new Storage(dataFile).load().size());
+    }
+
+    @Test
+    public void redo_afterNewChange_hasNothingToRedo() throws RequiemException {
+        run("delete 6");
+        run("undo");
+        run("todo fresh lead");
+        assertThrows(RequiemException.class, () -> run("redo"));
+        assertEquals(7, tasks.size());
+    }
+
+    @Test
+    public void setMaxBytes_smallBound_forgetsOldestChanges() throws RequiemException {
+        History history = new History(400);
+        TaskList taskList = new TaskList();
+        Storage boundStorage = new Storage(tempDir.resolve("bound.txt"));
+        for (int i = 0; i < 10; i++) {
+            Todo todo = new Todo("lead " + i);
+            taskList.addTask(todo);
+            history.recordAdd(todo);
+        }
+        int undone = 0;
+        while (history.undo(taskList, boundStorage) != null) {
+            undone++;
+        }
+        assertTrue(undone > 0 && undone < 10, "undone " + undone);
+        assertEquals(10 - undone, taskList.size());
+
+        history.setMaxBytes(0);
+        assertNull(history.redo(taskList, boundStorage));
+    }
+}
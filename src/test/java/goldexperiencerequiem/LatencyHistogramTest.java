@@ -0,0 +1,43 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getPercentileNanos_empty_returnsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(99));
+        assertEquals(0, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void getPercentileNanos_skewedDurations_boundsWithinFactorOfTwo() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(5_000_000);
+
+        assertEquals(100, histogram.getCount());
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 1_000 && p50 < 2_000, "p50 was " + p50);
+        long p99 = histogram.getPercentileNanos(99);
+        assertTrue(p99 >= 1_000 && p99 < 2_000, "p99 was " + p99);
+        assertEquals(5_000_000, histogram.getPercentileNanos(100));
+        assertEquals(5_000_000, histogram.getMaxNanos());
+        assertEquals((99 * 1_000 + 5_000_000) / 100, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void record_negativeDuration_countsAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(50));
+    }
+}
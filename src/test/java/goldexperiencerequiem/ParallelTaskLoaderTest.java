@@ -0,0 +1,64 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParallelTaskLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load_tinyChunks_keepsFileOrderAndSkipsBadLines() throws IOException {
+        StringBuilder content = new StringBuilder();
+        ArrayList<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            if (i % 7 == 0) {
+                content.append("corrupted ").append(i).append("\r\n");
+            } else if (i % 11 == 0) {
+                content.append("   \n");
+            } else {
+                content.append("T | 0 | task ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+                expected.add("[T][ ] task " + i);
+            }
+        }
+        content.append("T | 1 | no trailing newline");
+        expected.add("[T][X] no trailing newline");
+
+        Path file = tempDir.resolve("tasks.txt");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        ArrayList<Task> tasks = ParallelTaskLoader.load(file, this::parseTodo, 16);
+        assertEquals(expected.size(), tasks.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), tasks.get(i).toString());
+        }
+    }
+
+    @Test
+    public void load_emptyFile_returnsEmptyList() throws IOException {
+        Path file = tempDir.resolve("empty.txt");
+        Files.createFile(file);
+        assertEquals(0, ParallelTaskLoader.load(file, this::parseTodo).size());
+    }
+
+    private Task parseTodo(String line) {
+        String[] parts = line.split(" \\| ", 3);
+        if (parts.length < 3 || !parts[0].equals("T")) {
+            return null;
+        }
+        Todo todo = new Todo(parts[2]);
+        if (parts[1].equals("1")) {
+            todo.markAsDone();
+        }
+        return todo;
+    }
+}
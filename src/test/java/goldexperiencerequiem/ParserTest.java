@@ -1,12 +1,20 @@
 package goldexperiencerequiem;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Path;
+import java.time.LocalDate;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class ParserTest {
 
+    @TempDir
+    Path tempDir;
+
     @Test
     public void parse_byeCommand_returnsExitCommand() throws RequiemException {
         Command command = Parser.parse("bye");
@@ -56,4 +64,129 @@ public class ParserTest {
     public void parse_eventMissingTo_throwsRequiemException() {
         assertThrows(RequiemException.class, () -> Parser.parse("event bad /from 2023-12-01"));
     }
+
+    @Test
+    public void parse_dueCommand_returnsDueCommand() throws RequiemException {
+        assertTrue(Parser.parse("due 2023-10-20") instanceof DueCommand);
+    }
+
+    @Test
+    public void parse_betweenCommand_returnsBetweenCommand() throws RequiemException {
+        assertTrue(Parser.parse("between 2023-10-16  2023-10-22") instanceof BetweenCommand);
+    }
+
+    @Test
+    public void parse_betweenMissingEndDate_throwsRequiemException() {
+        assertThrows(RequiemException.class, () -> Parser.parse("between 2023-10-16"));
+    }
+
+    @Test
+    public void parse_betweenReversedDates_throwsRequiemException() {
+        assertThrows(RequiemException.class, () -> Parser.parse("between 2023-10-22 2023-10-16"));
+    }
+
+    @Test
+    public void parse_mixedCaseCommand_matchesKeyword() throws RequiemException {
+        assertTrue(Parser.parse("LiSt") instanceof ListCommand);
+        assertTrue(Parser.parse("DeAdLiNe report /by 2023-10-15") instanceof AddCommand);
+    }
+
+    @Test
+    public void parse_keywordPrefixOrLeadingSpace_throwsUnknownCommand() {
+        RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse("lis"));
+        assertEquals("I'm sorry, but I don't know what that means :-(", e.getMessage());
+        assertThrows(RequiemException.class, () -> Parser.parse(" list"));
+        assertThrows(RequiemException.class, () -> Parser.parse("listing"));
+    }
+
+    @Test
+    public void parse_markWithoutIndex_throwsSpecifyIndex() {
+        RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse("mark"));
+        assertEquals("You need to specify a task index.", e.getMessage());
+        e = assertThrows(RequiemException.class, () -> Parser.parse("mark "));
+        assertEquals("The task index must be a number from 1 up.", e.getMessage());
+    }
+
+    @Test
+    public void parse_zeroOrNegativeIndex_throwsInvalidIndex() {
+        for (String input : new String[] {"mark 0", "delete 0", "unmark -1", "delete -3"}) {
+            RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse(input), input);
+            assertEquals("The task index must be a number from 1 up.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parse_indexListOrWhereFind_returnsBulkCommands() throws RequiemException {
+        assertTrue(Parser.parse("mark 1-500") instanceof MarkCommand);
+        assertTrue(Parser.parse("delete 3, 7 ,9 - 20") instanceof DeleteCommand);
+        assertTrue(Parser.parse("unmark WHERE find report /or memo") instanceof UnmarkCommand);
+    }
+
+    @Test
+    public void parse_invalidIndexList_throwsInvalidIndexList() {
+        for (String input : new String[] {"mark 3-1", "mark 0-2", "delete 1,,2", "unmark 2,x", "mark 1-"}) {
+            RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse(input), input);
+            assertEquals("Use task numbers and ranges of them from 1 up, e.g. 3,7,9-20.", e.getMessage());
+        }
+        RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse("mark where find  "));
+        assertEquals("Use where find <keyword>, e.g. mark where find report.", e.getMessage());
+        assertThrows(RequiemException.class, () -> Parser.parse("mark where report"));
+    }
+
+    @Test
+    public void parse_deadlineSurroundingWhitespace_trimsDescriptionAndDate() throws RequiemException {
+        TaskList tasks = new TaskList();
+        Command command = Parser.parse("deadline   return book   /by   2023-10-15  ");
+        command.execute(tasks, new Ui(), new Storage(tempDir.resolve("parser.txt")));
+        assertEquals("return book", tasks.getTask(0).description);
+        assertEquals(LocalDate.of(2023, 10, 15), ((Deadline) tasks.getTask(0)).by);
+    }
+
+    @Test
+    public void parse_invalidCalendarDate_throwsInvalidDate() {
+        RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse("due 2023-02-30"));
+        assertEquals("Invalid date format. Please use yyyy-MM-dd (e.g., 2019-12-02).", e.getMessage());
+    }
+
+    @Test
+    public void parse_eventToBeforeFrom_throwsMissingFromTo() {
+        RequiemException e = assertThrows(RequiemException.class,
+                () -> Parser.parse("event trip /to 2023-10-18 /from 2023-10-16"));
+        assertEquals("The event must have /from and /to times.", e.getMessage());
+    }
+
+    @Test
+    public void parse_listPagingArguments_returnsListCommand() throws RequiemException {
+        assertTrue(Parser.parse("list 3") instanceof ListCommand);
+        assertTrue(Parser.parse("list --limit 10 --offset 20") instanceof ListCommand);
+        assertTrue(Parser.parse("list --offset 20") instanceof ListCommand);
+    }
+
+    @Test
+    public void parse_listInvalidPage_throwsRequiemException() {
+        RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse("list 0"));
+        assertEquals("The page must be a positive number.", e.getMessage());
+        assertThrows(RequiemException.class, () -> Parser.parse("list --limit -1"));
+        assertThrows(RequiemException.class, () -> Parser.parse("list --limit 0"));
+        assertThrows(RequiemException.class, () -> Parser.parse("list --limit 1 --limit 2"));
+        assertThrows(RequiemException.class, () -> Parser.parse("list --offset"));
+    }
+
+    @Test
+    public void parse_sortByKnownOrder_returnsListCommand() throws RequiemException {
+        assertTrue(Parser.parse("sort by date") instanceof ListCommand);
+        assertTrue(Parser.parse("sort NAME") instanceof ListCommand);
+        assertTrue(Parser.parse("list --sort status --limit 10") instanceof ListCommand);
+        assertTrue(Parser.parse("list --offset 5 --sort type --limit 10") instanceof ListCommand);
+    }
+
+    @Test
+    public void parse_sortByUnknownOrder_throwsRequiemException() {
+        RequiemException e = assertThrows(RequiemException.class, () -> Parser.parse("sort by motive"));
+        assertEquals("Sort by date, status, type or name, e.g. sort by date.", e.getMessage());
+        assertThrows(RequiemException.class, () -> Parser.parse("sort"));
+        assertThrows(RequiemException.class, () -> Parser.parse("sort by"));
+        assertThrows(RequiemException.class, () -> Parser.parse("list --sort"));
+        assertThrows(RequiemException.class, () -> Parser.parse("list --sort date --sort name"));
+    }
 }
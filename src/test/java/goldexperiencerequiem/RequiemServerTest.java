@@ -0,0 +1,202 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RequiemServerTest {
+
+    private static final String DIVIDER = "____________________________________________________________";
+
+    @TempDir
+    Path tempDir;
+
+    private Path dataFile;
+    private Requiem requiem;
+    private RequiemServer server;
+    private Thread acceptThread;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataFile = tempDir.resolve("requiem.txt");
+        requiem = new Requiem(dataFile);
+        server = new RequiemServer(requiem, 0);
+        acceptThread = new Thread(server::serve);
+        acceptThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        server.close();
+        acceptThread.join(TimeUnit.SECONDS.toMillis(10));
+        requiem.close();
+    }
+
+    /**
+     * A client that sends one command at a time and waits for its response.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            readResponse(); // welcome message
+        }
+
+        List<String> send(String command) throws IOException {
+            out.println(command);
+            return readResponse();
+        }
+
+        private List<String> readResponse() throws IOException {
+            List<String> lines = new ArrayList<>();
+            int dividers = 0;
+            while (dividers < 2) {
+                String line = in.readLine();
+                if (line == null) {
+                    throw new IOException("Server closed the connection");
+                }
+                if (line.equals(DIVIDER)) {
+                    dividers++;
+                } else {
+                    lines.add(line);
+                }
+            }
+            return lines;
+        }
+
+        boolean isClosedByServer() throws IOException {
+            return in.readLine() == null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void getResponse_failedThenValidCommand_flagsOnlyTheFailure() {
+        requiem.getResponse("mark 99");
+        assertTrue(requiem.isLastCommandError());
+        assertFalse(requiem.isExitCommand());
+
+        requiem.getResponse("todo canvass the block");
+        assertFalse(requiem.isLastCommandError());
+
+        requiem.getResponse("bye");
+        assertFalse(requiem.isLastCommandError());
+        assertTrue(requiem.isExitCommand());
+    }
+
+    @Test
+    public void serve_singleClient_respondsLikeTerminal() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            List<String> added = client.send("todo interview the witness");
+            assertEquals(" Filed it. The case keeps growin':", added.get(0));
+            assertEquals("   [T][ ] interview the witness", added.get(1));
+
+            List<String> error = client.send("mark 7");
+            assertTrue(error.get(0).startsWith(" You ain't makin' sense"));
+
+            client.send("bye");
+            assertTrue(client.isClosedByServer());
+        }
+    }
+
+    @Test
+    public void serve_changeFromOneClient_seenByAnother() throws IOException {
+        try (Client first = new Client(server.getPort()); Client second = new Client(server.getPort())) {
+            first.send("todo check the alibi");
+            List<String> listed = second.send("list");
+            assertEquals(" 1.[T][ ] check the alibi", listed.get(1));
+        }
+    }
+
+    @Test
+    public void serve_statsCommand_reportsCommandsAndBytes() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            client.send("todo dust for prints");
+            client.send("todo canvass the street");
+            client.send("flee the scene");
+            client.send("bye");
+        }
+        try (Client client = new Client(server.getPort())) {
+            List<String> stats = client.send("stats");
+            assertEquals(" Here's how the precinct's been runnin'. 2 on the board right now.", stats.get(0));
+            assertTrue(stats.get(1).startsWith(" Loaded 0 tasks in "));
+            assertTrue(stats.stream().anyMatch(line -> line.matches(" add +2 +0 .*")), String.join("\n", stats));
+            assertTrue(stats.stream().anyMatch(line -> line.matches(" invalid +1 +1 .*")));
+            assertTrue(stats.stream().anyMatch(line -> line.matches(" exit +1 +0 .*")));
+            // bye waits for the journal to be written, so its bytes are counted
+            assertTrue(stats.get(2).matches(" Storage wrote [1-9][0-9,]* bytes in [1-9][0-9]* background writes.*"),
+                    stats.get(2));
+            assertTrue(stats.get(3).matches(" Descriptions: [0-9,]+ of [0-9,]+ shared, saving about [0-9,]+ bytes\\."),
+                    stats.get(3));
+        }
+    }
+
+    @Test
+    public void serve_loadFromManyClients_noLostUpdates() throws Exception {
+        int clients = 8;
+        int commandsPerClient = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> generators = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int clientNumber = c;
+            generators.add(executor.submit(() -> {
+                try (Client client = new Client(server.getPort())) {
+                    start.await();
+                    for (int i = 0; i < commandsPerClient; i++) {
+                        client.send("todo lead " + clientNumber + "-" + i);
+                        if (i % 10 == 9) {
+                            client.send("mark 1");
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> generator : generators) {
+            generator.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int expected = clients * commandsPerClient;
+        try (Client client = new Client(server.getPort())) {
+            List<String> listed = client.send("list");
+            assertEquals(expected + 1, listed.size());
+        }
+        server.close();
+        requiem.close();
+        assertEquals(expected, new Storage(dataFile).load().size());
+    }
+}
@@ -1,11 +1,15 @@
 package goldexperiencerequiem;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,7 +30,7 @@ public class StorageTest {
             private final Path customPath = dataDir.resolve("test.txt");
 
             @Override
-            public void save(ArrayList<Task> tasks) {
+            public void save(List<Task> tasks) {
                 try {
                     java.io.FileWriter writer = new java.io.FileWriter(customPath.toFile());
                     for (Task task : tasks) {
@@ -54,4 +58,246 @@ public class StorageTest {
         ArrayList<Task> tasks = storage.load();
         assertTrue(tasks.isEmpty());
     }
+
+    @Test
+    public void load_journaledMutations_replaysOnTopOfDataFile() {
+        Path dataFile = tempDir.resolve("journal.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("first"));
+        storage.save(tasks);
+
+        Todo second = new Todo("second");
+        tasks.add(second);
+        storage.recordAdd(tasks, second);
+        tasks.get(1).markAsDone();
+        storage.recordMark(tasks, 1);
+        tasks.remove(0);
+        storage.recordDelete(tasks, 0);
+
+        ArrayList<Task> loaded = new Storage(dataFile).load();
+        assertEquals(1, loaded.size());
+        assertEquals("[T][X] second", loaded.get(0).toString());
+    }
+
+    @Test
+    public void load_bulkJournalRecords_replaysEveryIndex() throws IOException {
+        Path dataFile = tempDir.resolve("bulk.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tasks.add(new Todo("lead " + i));
+        }
+        storage.save(tasks);
+
+        storage.recordMarks(tasks, new int[] {1, 2, 3, 5});
+        tasks.remove(3);
+        tasks.remove(2);
+        tasks.remove(0);
+        storage.recordDeletes(tasks, new int[] {0, 2, 3});
+        storage.recordUnmarks(tasks, new int[] {0});
+
+        List<String> records = Files.readAllLines(tempDir.resolve("bulk.txt.journal"));
+        assertEquals("1 | M | 1-3,5", records.get(0));
+        assertEquals("2 | D | 0,2-3", records.get(1));
+        ArrayList<Task> loaded = new Storage(dataFile).load();
+        assertEquals(3, loaded.size());
+        assertEquals("[T][ ] lead 1", loaded.get(0).toString());
+        assertEquals("[T][ ] lead 4", loaded.get(1).toString());
+        assertEquals("[T][X] lead 5", loaded.get(2).toString());
+    }
+
+    @Test
+    public void save_afterJournaledMutations_discardsJournal() throws IOException {
+        Path dataFile = tempDir.resolve("journal.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        Todo todo = new Todo("only");
+        tasks.add(todo);
+        storage.recordAdd(tasks, todo);
+        assertTrue(Files.exists(tempDir.resolve("journal.txt.journal")));
+
+        storage.save(tasks);
+        assertFalse(Files.exists(tempDir.resolve("journal.txt.journal")));
+        assertEquals(1, new Storage(dataFile).load().size());
+    }
+
+    @Test
+    public void recordAdd_pastCompactionThreshold_compactsIntoSnapshot() throws IOException {
+        Path dataFile = tempDir.resolve("compact.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+        storage.setCompactionThreshold(2);
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Todo todo = new Todo("task " + i);
+            tasks.add(todo);
+            storage.recordAdd(tasks, todo);
+        }
+        storage.close();
+
+        List<String> snapshot = Files.readAllLines(dataFile);
+        assertEquals("# 2", snapshot.get(0));
+        assertEquals(3, snapshot.size());
+        assertFalse(Files.exists(tempDir.resolve("compact.txt.journal.compacting")));
+        assertEquals(1, Files.readAllLines(tempDir.resolve("compact.txt.journal")).size());
+
+        ArrayList<Task> loaded = new Storage(dataFile).load();
+        assertEquals(3, loaded.size());
+        assertEquals("[T][ ] task 2", loaded.get(2).toString());
+    }
+
+    @Test
+    public void recordAdd_writeBehind_flushPersistsAllRecords() {
+        Path dataFile = tempDir.resolve("behind.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+        storage.enableWriteBehind();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Todo todo = new Todo("task " + i);
+            tasks.add(todo);
+            storage.recordAdd(tasks, todo);
+        }
+        tasks.get(5).markAsDone();
+        storage.recordMark(tasks, 5);
+        storage.flush();
+
+        ArrayList<Task> loaded = new Storage(dataFile).load();
+        assertEquals(200, loaded.size());
+        assertEquals("[T][X] task 5", loaded.get(5).toString());
+        assertEquals("[T][ ] task 199", loaded.get(199).toString());
+        storage.close();
+    }
+
+    @Test
+    public void save_writeBehind_keepsLatestSave() {
+        Path dataFile = tempDir.resolve("saves.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+        storage.enableWriteBehind();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Todo("task " + i));
+            storage.save(tasks);
+        }
+        storage.close();
+
+        assertEquals(50, new Storage(dataFile).load().size());
+    }
+
+    @Test
+    public void recordAdd_deferredWrites_savesOnlyWhenWrittenOut() {
+        Path dataFile = tempDir.resolve("deferred.txt");
+        Storage storage = new Storage(dataFile);
+        storage.enableJournal();
+        storage.deferWrites();
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Todo todo = new Todo("task " + i);
+            tasks.add(todo);
+            storage.recordAdd(tasks, todo);
+        }
+        assertFalse(Files.exists(dataFile));
+        assertFalse(Files.exists(tempDir.resolve("deferred.txt.journal")));
+
+        storage.writeDeferred();
+        assertEquals(3, new Storage(dataFile).load().size());
+
+        tasks.remove(0);
+        storage.recordDelete(tasks, 0);
+        storage.close();
+        assertEquals(2, new Storage(dataFile).load().size());
+    }
+
+    @Test
+    public void load_textFileInBinaryMode_migratesAndRoundTrips() throws IOException {
+        Path dataFile = tempDir.resolve("binary.txt");
+        Files.write(dataFile, List.of(
+                "T | 1 | read book",
+                "D | 0 | return book | 2023-10-15",
+                "garbage line",
+                "E | 0 | trip \u00e0 Paris | 2023-10-16 | 2023-10-18"));
+
+        Storage storage = new Storage(dataFile);
+        storage.enableBinaryFormat();
+        ArrayList<Task> migrated = storage.load();
+        assertEquals(3, migrated.size());
+        assertTrue(BinaryTaskFormat.isBinary(dataFile));
+
+        ArrayList<Task> loaded = new Storage(dataFile).load();
+        assertEquals(migrated, loaded);
+        assertTrue(loaded.get(0).isDone);
+        assertEquals(new Event("trip \u00e0 Paris", LocalDate.parse("2023-10-16"), LocalDate.parse("2023-10-18")),
+                loaded.get(2));
+    }
+
+    @Test
+    public void load_binaryRecordLengthPastEndOfFile_keepsEarlierTasksAndReportsCorruption() throws IOException {
+        Path dataFile = tempDir.resolve("corrupt.bin");
+        try (OutputStream out = Files.newOutputStream(dataFile)) {
+            BinaryTaskFormat.write(out, List.of(new Todo("lift prints"), new Todo("run the plates")), 0);
+        }
+        byte[] bytes = Files.readAllBytes(dataFile);
+        // Header, then the first record's length prefix, fixed fields and description
+        int secondRecord = 18 + 4 + 6 + "lift prints".length();
+        ByteBuffer.wrap(bytes).putInt(secondRecord, Integer.MAX_VALUE);
+        Files.write(dataFile, bytes);
+
+        List<String> errors = new ArrayList<>();
+        Storage storage = new Storage(dataFile);
+        storage.enableErrorOutput(errors::add);
+        ArrayList<Task> loaded = storage.load();
+
+        assertEquals(List.of(new Todo("lift prints")), loaded);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).contains("corrupted"), errors.get(0));
+    }
+
+    @Test
+    public void save_alwaysSyncPolicy_replacesFileAndLeavesNoTempFile() throws IOException {
+        Path dataFile = tempDir.resolve("durable.txt");
+        Files.write(dataFile, List.of("T | 0 | old task"));
+        Storage storage = new Storage(dataFile);
+        storage.setSyncPolicy(SyncPolicy.ALWAYS);
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("new task"));
+        storage.save(tasks);
+
+        assertEquals(List.of("T | 0 | new task"), Files.readAllLines(dataFile));
+        assertFalse(Files.exists(tempDir.resolve("durable.txt.tmp")));
+    }
+
+    @Test
+    public void fromName_unknownOrMissingName_returnsDefault() {
+        assertEquals(SyncPolicy.NEVER, SyncPolicy.fromName("never", SyncPolicy.BATCHED));
+        assertEquals(SyncPolicy.BATCHED, SyncPolicy.fromName("sometimes", SyncPolicy.BATCHED));
+        assertEquals(SyncPolicy.BATCHED, SyncPolicy.fromName(null, SyncPolicy.BATCHED));
+    }
+
+    @Test
+    public void commit_batchedThenIdle_forcesWithinSyncInterval() throws Exception {
+        Journal journal = new Journal(tempDir.resolve("idle.txt.journal"));
+        journal.appendAdd("T | 0 | stake out the docks");
+        journal.commit();
+        assertEquals(1, journal.getUnsyncedRecords());
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (journal.getUnsyncedRecords() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, journal.getUnsyncedRecords());
+        journal.close();
+    }
 }
@@ -1,10 +1,23 @@
 package goldexperiencerequiem;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.jupiter.api.Test;
 
 public class TaskListTest {
@@ -47,6 +60,24 @@ public class TaskListTest {
         assertFalse(taskList.hasDuplicate(new Todo("other task")));
     }
 
+    @Test
+    public void hasDuplicate_afterDelete_returnsFalse() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("test task"));
+        taskList.deleteTask(0);
+        assertFalse(taskList.hasDuplicate(new Todo("test task")));
+    }
+
+    @Test
+    public void hasDuplicate_loadedDuplicatesPartlyDeleted_returnsTrue() {
+        java.util.ArrayList<Task> loaded = new java.util.ArrayList<>();
+        loaded.add(new Todo("test task"));
+        loaded.add(new Todo("test task"));
+        TaskList taskList = new TaskList(loaded);
+        taskList.deleteTask(0);
+        assertTrue(taskList.hasDuplicate(new Todo("test task")));
+    }
+
     @Test
     public void findTasks_matchingKeyword_returnsMatches() {
         TaskList taskList = new TaskList();
@@ -56,4 +87,419 @@ public class TaskListTest {
         assertEquals(1, matches.size());
         assertEquals("[T][ ] read book", matches.get(0).toString());
     }
+
+    @Test
+    public void findTasks_multipleKeywords_requiresAllAndKeepsListOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read library book"));
+        taskList.addTask(new Todo("return book"));
+        taskList.addTask(new Todo("Book the LIBRARY room"));
+        java.util.ArrayList<Task> matches = taskList.findTasks("library book");
+        assertEquals(2, matches.size());
+        assertEquals("[T][ ] read library book", matches.get(0).toString());
+        assertEquals("[T][ ] Book the LIBRARY room", matches.get(1).toString());
+    }
+
+    @Test
+    public void findTasks_orQuery_returnsUnionInListOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("buy pen"));
+        taskList.addTask(new Todo("write code"));
+        taskList.addTask(new Todo("read book"));
+        java.util.ArrayList<Task> matches = taskList.findTasks("book /or pen");
+        assertEquals(2, matches.size());
+        assertEquals("[T][ ] buy pen", matches.get(0).toString());
+        assertEquals("[T][ ] read book", matches.get(1).toString());
+    }
+
+    @Test
+    public void findTasks_wordPrefix_matchesLongerWordsOnly() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("file reports"));
+        taskList.addTask(new Todo("fix misreport"));
+        taskList.addTask(new Todo("report and reporter"));
+        assertArrayEquals(new int[] {0, 2}, taskList.findTaskIndices("report"));
+        assertArrayEquals(new int[] {2}, taskList.findTaskIndices("report and"));
+    }
+
+    @Test
+    public void findTasks_orInsideWordOrUpperCase_splitsOnlyOnStandaloneOr() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("ordinary lead"));
+        taskList.addTask(new Todo("dinary lead"));
+        taskList.addTask(new Todo("buy pen"));
+        assertArrayEquals(new int[] {0}, taskList.findTaskIndices("/ordinary"));
+        assertArrayEquals(new int[] {0, 1, 2}, taskList.findTaskIndices("lead /OR pen"));
+    }
+
+    @Test
+    public void findTasks_afterDelete_omitsDeletedTask() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Todo("return book"));
+        taskList.deleteTask(0);
+        java.util.ArrayList<Task> matches = taskList.findTasks("book");
+        assertEquals(1, matches.size());
+        assertEquals("[T][ ] return book", matches.get(0).toString());
+    }
+
+    @Test
+    public void deleteTasks_severalIndices_removesThemAndUpdatesIndexes() {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 6; i++) {
+            taskList.addTask(new Todo("lead " + i));
+        }
+        List<Task> removed = taskList.deleteTasks(new int[] {0, 2, 3});
+        assertEquals(3, removed.size());
+        assertEquals("lead 2", removed.get(1).description);
+        assertEquals(3, taskList.size());
+        assertEquals("lead 5", taskList.getTask(2).description);
+        assertEquals(0, taskList.findTasks("2").size());
+        assertFalse(taskList.hasDuplicate(new Todo("lead 3")));
+        assertArrayEquals(new int[] {2}, taskList.findTaskIndices("5"));
+    }
+
+    @Test
+    public void insertTasks_afterDelete_restoresOrderAndIndexes() {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 6; i++) {
+            taskList.addTask(new Todo("lead " + i));
+        }
+        int[] indices = {0, 2, 3, 5};
+        List<Task> removed = taskList.deleteTasks(indices);
+        taskList.insertTasks(indices, removed);
+        for (int i = 0; i < 6; i++) {
+            assertEquals("lead " + i, taskList.getTask(i).description);
+        }
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, taskList.findTaskIndices("lead"));
+        assertTrue(taskList.hasDuplicate(new Todo("lead 3")));
+
+        taskList.addTask(new Todo("lead 6"));
+        assertEquals(7, taskList.findTasks("lead").size());
+        assertEquals("lead 6", taskList.findTasks("lead").get(6).description);
+    }
+
+    @Test
+    public void insertTasks_moreThanFitBetweenNeighbours_keepsSearchOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("first case"));
+        taskList.addTask(new Todo("last case"));
+        int count = 70_000;
+        int[] indices = new int[count];
+        List<Task> inserted = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            indices[i] = i + 1;
+            inserted.add(new Todo("middle case " + i));
+        }
+        taskList.insertTasks(indices, inserted);
+        ArrayList<Task> matches = taskList.findTasks("case");
+        assertEquals(count + 2, matches.size());
+        assertEquals("middle case 0", matches.get(1).description);
+        assertEquals("last case", matches.get(count + 1).description);
+        assertArrayEquals(new int[] {count + 1}, taskList.findTaskIndices("last"));
+    }
+
+    @Test
+    public void findTaskIndices_afterDelete_returnsCurrentPositions() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Todo("write code"));
+        taskList.addTask(new Todo("return book"));
+        taskList.addTask(new Todo("book room"));
+        taskList.deleteTask(0);
+        assertArrayEquals(new int[] {1, 2}, taskList.findTaskIndices("book"));
+        assertArrayEquals(new int[0], taskList.findTaskIndices("pen"));
+    }
+
+    @Test
+    public void findDueBy_mixedTasks_returnsEarlierDeadlinesInDateOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Deadline("late", LocalDate.parse("2023-10-20")));
+        taskList.addTask(new Todo("no date"));
+        taskList.addTask(new Deadline("early", LocalDate.parse("2023-10-01")));
+        taskList.addTask(new Deadline("after", LocalDate.parse("2023-10-21")));
+        java.util.ArrayList<Task> due = taskList.findDueBy(LocalDate.parse("2023-10-20"));
+        assertEquals(2, due.size());
+        assertEquals("[D][ ] early (by: Oct 1 2023)", due.get(0).toString());
+        assertEquals("[D][ ] late (by: Oct 20 2023)", due.get(1).toString());
+    }
+
+    @Test
+    public void findBetween_deadlinesAndEvents_returnsOverlapsInDateOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Event("long stakeout", LocalDate.parse("2023-09-01"), LocalDate.parse("2023-12-01")));
+        taskList.addTask(new Event("past trip", LocalDate.parse("2023-09-01"), LocalDate.parse("2023-09-05")));
+        taskList.addTask(new Deadline("report", LocalDate.parse("2023-10-18")));
+        taskList.addTask(new Event("meeting", LocalDate.parse("2023-10-17"), LocalDate.parse("2023-10-17")));
+        taskList.addTask(new Event("future trip", LocalDate.parse("2023-10-23"), LocalDate.parse("2023-10-25")));
+        java.util.ArrayList<Task> found = taskList.findBetween(LocalDate.parse("2023-10-16"),
+                LocalDate.parse("2023-10-22"));
+        assertEquals(3, found.size());
+        assertTrue(found.get(0).toString().contains("long stakeout"));
+        assertTrue(found.get(1).toString().contains("meeting"));
+        assertTrue(found.get(2).toString().contains("report"));
+    }
+
+    @Test
+    public void findBetween_afterDelete_omitsDeletedEvent() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Event("meeting", LocalDate.parse("2023-10-17"), LocalDate.parse("2023-10-17")));
+        taskList.deleteTask(0);
+        assertTrue(taskList.findBetween(LocalDate.parse("2023-10-01"), LocalDate.parse("2023-10-31")).isEmpty());
+    }
+
+    @Test
+    public void enableTaskStore_mixedTasks_keepsSearchesAndDuplicateChecks() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Deadline("return book", LocalDate.parse("2023-10-18")));
+        taskList.enableTaskStore();
+        taskList.addTask(new Event("book fair", LocalDate.parse("2023-10-17"), LocalDate.parse("2023-10-19")));
+        taskList.addTask(new Todo("!!!"));
+
+        assertTrue(TaskList.isSnapshot(taskList.getAllTasks()));
+        assertArrayEquals(new int[] {0, 1, 2}, taskList.findTaskIndices("book"));
+        assertEquals("[D][ ] return book (by: Oct 18 2023)", taskList.findDueBy(LocalDate.parse("2023-10-31"))
+                .get(0).toString());
+        assertEquals(2, taskList.findBetween(LocalDate.parse("2023-10-18"), LocalDate.parse("2023-10-18")).size());
+        assertTrue(taskList.hasDuplicate(new Todo("read book")));
+        assertFalse(taskList.hasDuplicate(new Deadline("read book", LocalDate.parse("2023-10-18"))));
+        assertTrue(taskList.hasDuplicate(new Todo("!!!")));
+
+        List<Task> removed = taskList.deleteTasks(new int[] {0, 2});
+        assertFalse(taskList.hasDuplicate(new Todo("read book")));
+        assertArrayEquals(new int[] {0}, taskList.findTaskIndices("book"));
+        taskList.insertTasks(new int[] {0, 2}, removed);
+        assertArrayEquals(new int[] {0, 1, 2}, taskList.findTaskIndices("book"));
+        assertEquals("book fair", taskList.getTask(2).description);
+    }
+
+    @Test
+    public void setDone_taskStore_laterReadsAndSnapshotsSeeStatus() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.enableTaskStore();
+        List<Task> snapshot = taskList.getAllTasks();
+
+        taskList.getTask(0).markAsDone();
+        assertFalse(taskList.getTask(0).isDone);
+        taskList.setDone(0, true);
+        assertTrue(taskList.getTask(0).isDone);
+        assertTrue(snapshot.get(0).isDone);
+    }
+
+    @Test
+    public void getAllTasks_laterChanges_snapshotUnchanged() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(new Todo("return book"));
+        List<Task> snapshot = taskList.getAllTasks();
+
+        taskList.addTask(new Todo("buy pen"));
+        taskList.deleteTask(0);
+
+        assertEquals(2, snapshot.size());
+        assertEquals("[T][ ] read book", snapshot.get(0).toString());
+        assertEquals("[T][ ] return book", snapshot.get(1).toString());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Todo("sneak in")));
+        assertEquals(2, taskList.size());
+    }
+
+    @Test
+    public void getAllTasks_lastTaskDeletedThenReplaced_snapshotUnchanged() {
+        TaskList taskList = new TaskList();
+        Todo last = new Todo("return book");
+        taskList.addTask(new Todo("read book"));
+        taskList.addTask(last);
+        List<Task> snapshot = taskList.getAllTasks();
+
+        taskList.deleteTask(1);
+        taskList.addTask(last);
+        taskList.deleteTask(1);
+        taskList.addTask(new Todo("buy pen"));
+
+        assertEquals("[T][ ] return book", snapshot.get(1).toString());
+        assertEquals("[T][ ] buy pen", taskList.getTask(1).toString());
+    }
+
+    @Test
+    public void addTask_concurrentWriters_noLostUpdates() throws Exception {
+        int threads = 8;
+        int tasksPerThread = 5000;
+        TaskList taskList = new TaskList();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tasksPerThread; i++) {
+                    taskList.addTask(new Todo("writer" + thread + " task" + i));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<Task> snapshot = taskList.getAllTasks();
+        assertEquals(threads * tasksPerThread, snapshot.size());
+        assertEquals(threads * tasksPerThread, new HashSet<>(snapshot).size());
+        assertEquals(1, taskList.findTasks("writer3 task4999").size());
+    }
+
+    @Test
+    public void getAllTasks_concurrentAddsAndDeletes_readersSeeConsistentSnapshots() throws Exception {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 1000; i++) {
+            taskList.addTask(new Todo("base " + i));
+        }
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?> writer = executor.submit(() -> {
+            // Each round adds two tasks and deletes one, from either end
+            for (int i = 0; i < 2000; i++) {
+                taskList.addTask(new Todo("extra " + i));
+                taskList.addTask(new Todo("extra " + i));
+                taskList.deleteTask(i % 2 == 0 ? 0 : taskList.size() - 1);
+            }
+            isWriting.set(false);
+            return null;
+        });
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(executor.submit(() -> {
+                do {
+                    List<Task> snapshot = taskList.getAllTasks();
+                    int size = snapshot.size();
+                    int count = 0;
+                    for (Task task : snapshot) {
+                        assertTrue(task != null, "snapshot should not contain gaps");
+                        count++;
+                    }
+                    assertEquals(size, count);
+                    assertEquals(size, snapshot.size());
+                } while (isWriting.get());
+                return null;
+            }));
+        }
+        writer.get(30, TimeUnit.SECONDS);
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(3000, taskList.size());
+        assertEquals(3000, taskList.findTasks("base /or extra").size());
+    }
+
+    @Test
+    public void addTask_repeatedDescription_sharesOneString() {
+        List<Task> loaded = new ArrayList<>();
+        loaded.add(new Todo(new String("take out the trash")));
+        loaded.add(new Deadline(new String("take out the trash"), LocalDate.of(2024, 5, 1)));
+        TaskList taskList = new TaskList(loaded);
+        Todo added = new Todo(new String("take out the trash"));
+        taskList.addTask(added);
+
+        assertSame(taskList.getTask(0).description, taskList.getTask(1).description);
+        assertSame(taskList.getTask(0).description, added.description);
+        assertEquals(2, taskList.getDescriptionPool().getSharedUses());
+    }
+
+    @Test
+    public void deleteTasks_sharedDescriptions_reportsSavingOfRemainingTasks() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo(new String("water the plants")));
+        taskList.addTask(new Deadline(new String("water the plants"), LocalDate.of(2024, 5, 1)));
+        taskList.addTask(new Todo("feed the cat"));
+        // 24-byte string plus a 16-byte array header and 16 Latin-1 chars
+        assertEquals(56, taskList.getDescriptionPool().getBytesSaved());
+
+        taskList.deleteTasks(new int[] {0, 2});
+        DescriptionPool pool = taskList.getDescriptionPool();
+        assertEquals(1, pool.getUses());
+        assertEquals(0, pool.getSharedUses());
+        assertEquals(0, pool.getBytesSaved());
+    }
+
+    @Test
+    public void getSortedView_byDate_ordersDatedTasksAndKeepsTiesInListOrder() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("stake out the docks"));
+        taskList.addTask(new Deadline("file the report", LocalDate.of(2024, 3, 9)));
+        taskList.addTask(new Event("trial", LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 4)));
+        taskList.addTask(new Todo("call the coroner"));
+        taskList.addTask(new Deadline("sign the warrant", LocalDate.of(2024, 3, 2)));
+
+        SortedView view = taskList.getSortedView(SortOrder.DATE);
+        int[] order = new int[view.size()];
+        for (int rank = 0; rank < view.size(); rank++) {
+            order[rank] = view.getIndex(rank);
+        }
+        assertArrayEquals(new int[] {2, 4, 1, 0, 3}, order);
+        assertEquals(taskList.getTask(2), view.getTask(0));
+    }
+
+    @Test
+    public void getSortedView_byDateBefore1970_putsOldestFirst() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("reopen the cold case"));
+        taskList.addTask(new Deadline("file the report", LocalDate.of(2024, 3, 9)));
+        taskList.addTask(new Deadline("close the old file", LocalDate.of(1969, 12, 31)));
+
+        SortedView view = taskList.getSortedView(SortOrder.DATE);
+        assertEquals(2, view.getIndex(0));
+        assertEquals(1, view.getIndex(1));
+        assertEquals(0, view.getIndex(2));
+
+        taskList.addTask(new Deadline("dig up the records", LocalDate.of(1950, 1, 1)));
+        assertEquals(3, taskList.getSortedView(SortOrder.DATE).getIndex(0));
+    }
+
+    @Test
+    public void getSortedView_afterAppendsAndDeletes_matchesFullSort() {
+        TaskList taskList = new TaskList();
+        for (int i = 0; i < 40; i++) {
+            taskList.addTask(new Todo("lead " + (i * 7919 % 97)));
+        }
+        for (SortOrder sortOrder : SortOrder.values()) {
+            taskList.getSortedView(sortOrder);
+        }
+        for (int i = 0; i < 25; i++) {
+            taskList.addTask(new Todo("Lead " + (i * 31 % 53)));
+            taskList.getTask(i).markAsDone();
+        }
+        taskList.deleteTask(taskList.size() - 1);
+        assertSortedViewsMatchFullSort(taskList);
+        taskList.deleteTasks(new int[] {0, 10, 20});
+        assertSortedViewsMatchFullSort(taskList);
+    }
+
+    private static void assertSortedViewsMatchFullSort(TaskList taskList) {
+        List<Task> tasks = taskList.getAllTasks();
+        for (SortOrder sortOrder : SortOrder.values()) {
+            SortedView view = taskList.getSortedView(sortOrder);
+            int[] expected = sortOrder.sort(tasks, 0, tasks.size());
+            assertEquals(expected.length, view.size());
+            for (int rank = 0; rank < expected.length; rank++) {
+                assertEquals(expected[rank], view.getIndex(rank), sortOrder + " at rank " + rank);
+            }
+        }
+    }
+
+    @Test
+    public void getSortedView_byStatus_seesTasksMarkedSinceLastSort() {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Todo("interview the witness"));
+        taskList.addTask(new Todo("check the alibi"));
+        assertEquals(0, taskList.getSortedView(SortOrder.STATUS).getIndex(0));
+
+        taskList.getTask(0).markAsDone();
+        assertEquals(1, taskList.getSortedView(SortOrder.STATUS).getIndex(0));
+    }
 }
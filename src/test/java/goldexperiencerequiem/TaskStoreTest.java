@@ -0,0 +1,106 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskStoreTest {
+
+    private static List<Task> mixedTasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("interview the witness"));
+        tasks.add(new Deadline("file the report", LocalDate.of(2024, 3, 1)));
+        tasks.add(new Event("stakeout at the café", LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 6)));
+        tasks.get(1).markAsDone();
+        return tasks;
+    }
+
+    @Test
+    public void get_mixedTasks_rebuildsEqualTasks() {
+        List<Task> tasks = mixedTasks();
+        TaskStore store = new TaskStore(tasks);
+        assertEquals(3, store.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i), store.get(i));
+            assertEquals(tasks.get(i).toFileFormat(), store.get(i).toFileFormat());
+        }
+        assertEquals("stakeout at the café", store.getDescription(2));
+    }
+
+    @Test
+    public void setDone_markedInStore_laterReadsSeeStatus() {
+        TaskStore store = new TaskStore(mixedTasks());
+        store.get(0).markAsDone();
+        assertFalse(store.isDone(0));
+
+        store.setDone(0, true);
+        store.setDone(1, false);
+        assertTrue(store.get(0).isDone);
+        assertFalse(store.get(1).isDone);
+    }
+
+    @Test
+    public void withoutTasks_severalIndices_keepsRestInOrder() {
+        TaskStore store = new TaskStore();
+        for (int i = 0; i < 130; i++) {
+            Todo todo = new Todo("lead " + i);
+            if (i % 3 == 0) {
+                todo.markAsDone();
+            }
+            store = store.withTask(todo);
+        }
+        TaskStore remaining = store.withoutTasks(new int[] {0, 1, 64, 65, 66, 129});
+        assertEquals(124, remaining.size());
+        for (int i = 0; i < remaining.size(); i++) {
+            int original = i < 62 ? i + 2 : i + 5;
+            assertEquals("lead " + original, remaining.getDescription(i));
+            assertEquals(original % 3 == 0, remaining.isDone(i), "lead " + original);
+        }
+        remaining = remaining.withTask(new Todo("fresh lead"));
+        assertFalse(remaining.isDone(124));
+        assertEquals("fresh lead", remaining.getDescription(124));
+        assertEquals(130, store.size());
+        assertEquals("lead 0", store.getDescription(0));
+    }
+
+    @Test
+    public void withTask_onEarlierStore_leavesLaterStoreUnchanged() {
+        TaskStore first = new TaskStore().withTask(new Todo("first lead"));
+        TaskStore withWitness = first.withTask(new Todo("call the witness"));
+        TaskStore withCoroner = first.withTask(new Todo("call the coroner"));
+        TaskStore withoutWitness = withWitness.withoutTask(1);
+
+        assertEquals("call the witness", withWitness.getDescription(1));
+        assertEquals("call the coroner", withCoroner.getDescription(1));
+        assertEquals(1, withoutWitness.size());
+        TaskStore withNext = withoutWitness.withTask(new Todo("next lead"));
+        assertEquals("next lead", withNext.getDescription(1));
+        assertEquals("call the witness", withWitness.getDescription(1));
+        assertTrue(withWitness.sharesStorageWith(first));
+        assertFalse(withCoroner.sharesStorageWith(first));
+    }
+
+    @Test
+    public void withTasks_atPositions_putsTasksBackInPlace() {
+        List<Task> tasks = mixedTasks();
+        TaskStore store = new TaskStore(tasks);
+        TaskStore shorter = store.withoutTasks(new int[] {0, 2});
+        TaskStore restored = shorter.withTasks(new int[] {0, 2}, List.of(tasks.get(0), tasks.get(2)));
+        assertEquals(tasks, restored);
+        assertTrue(restored.isDone(1));
+    }
+
+    @Test
+    public void withTask_plainTask_throwsIllegalArgument() {
+        TaskStore store = new TaskStore();
+        assertThrows(IllegalArgumentException.class, () -> store.withTask(new Task("no type")));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(0));
+    }
+}
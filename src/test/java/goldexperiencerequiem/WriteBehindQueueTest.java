@@ -0,0 +1,59 @@
+package goldexperiencerequiem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+public class WriteBehindQueueTest {
+
+    @Test
+    public void flush_afterWrites_runsThemInOrderAndCommits() {
+        List<String> log = new CopyOnWriteArrayList<>();
+        WriteBehindQueue queue = new WriteBehindQueue("test-writer", () -> log.add("commit"), e -> log.add("error"));
+        queue.submit(() -> log.add("first"));
+        queue.submit(() -> log.add("second"));
+
+        queue.flush();
+
+        assertEquals(List.of("first", "second"), log.stream().filter(line -> !line.equals("commit")).toList());
+        assertEquals("commit", log.get(log.size() - 1));
+        queue.close();
+    }
+
+    @Test
+    public void flush_writerThreadDied_writesOnCallerAndReports() {
+        List<String> log = new CopyOnWriteArrayList<>();
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+        WriteBehindQueue queue = new WriteBehindQueue("test-writer", () -> log.add("commit"), errors::add);
+        CountDownLatch isWriting = new CountDownLatch(1);
+        CountDownLatch canFail = new CountDownLatch(1);
+        queue.submit(() -> {
+            isWriting.countDown();
+            awaitUninterruptibly(canFail);
+            throw new AssertionError("lead went cold");
+        });
+        awaitUninterruptibly(isWriting);
+        // Queued behind the batch the writer dies in
+        queue.submit(() -> log.add("written"));
+        canFail.countDown();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), queue::flush);
+
+        assertEquals(1, errors.size());
+        assertEquals(List.of("written", "commit"), log);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+}